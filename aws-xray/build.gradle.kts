@@ -2,6 +2,7 @@ plugins {
   id("otel.java-conventions")
   id("otel.publish-conventions")
 
+  id("me.champeau.jmh")
   id("org.unbroken-dome.test-sets")
 }
 
@@ -14,6 +15,7 @@ testSets {
 dependencies {
   api("io.opentelemetry:opentelemetry-api")
   api("io.opentelemetry:opentelemetry-sdk-trace")
+  api("io.opentelemetry:opentelemetry-api-metrics")
 
   compileOnly("io.opentelemetry:opentelemetry-sdk-extension-autoconfigure")
 
@@ -33,6 +35,7 @@ dependencies {
   testImplementation("com.linecorp.armeria:armeria-junit5")
   testImplementation("io.opentelemetry:opentelemetry-sdk-extension-autoconfigure")
   testImplementation("io.opentelemetry:opentelemetry-sdk-testing")
+  testImplementation("io.opentelemetry:opentelemetry-sdk-metrics")
   testImplementation("com.google.guava:guava")
   testImplementation("org.slf4j:slf4j-simple")
   testImplementation("org.skyscreamer:jsonassert")
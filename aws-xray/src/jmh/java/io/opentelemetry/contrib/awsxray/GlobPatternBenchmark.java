@@ -0,0 +1,90 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.awsxray;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time to match a string with {@link GlobPattern}, against the regular expression the
+ * sampling rule glob patterns used to be compiled to. Run with {@code -prof gc} to compare the
+ * allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GlobPatternBenchmark {
+
+  // A URL path prefix, a host suffix and a pattern making regular expressions backtrack.
+  @Param({"/api/v1/*", "*.example.com", "*foo*bar*baz*"})
+  public String pattern;
+
+  @Param({"/api/v1/users/42/orders?page=3", "service-foo-bar-qux.internal.example.com"})
+  public String input;
+
+  private GlobPattern globPattern;
+  private Pattern regexPattern;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    globPattern = GlobPattern.compile(pattern);
+    regexPattern = toRegexPattern(pattern);
+  }
+
+  @Benchmark
+  public boolean glob() {
+    return globPattern.matches(input);
+  }
+
+  @Benchmark
+  public boolean regex() {
+    return regexPattern.matcher(input).matches();
+  }
+
+  // The conversion SamplingRuleApplier used before GlobPattern.
+  private static Pattern toRegexPattern(String globPattern) {
+    int tokenStart = -1;
+    StringBuilder patternBuilder = new StringBuilder();
+    for (int i = 0; i < globPattern.length(); i++) {
+      char c = globPattern.charAt(i);
+      if (c == '*' || c == '?') {
+        if (tokenStart != -1) {
+          patternBuilder.append(Pattern.quote(globPattern.substring(tokenStart, i)));
+          tokenStart = -1;
+        }
+        if (c == '*') {
+          patternBuilder.append(".*");
+        } else {
+          // c == '?'
+          patternBuilder.append(".");
+        }
+      } else {
+        if (tokenStart == -1) {
+          tokenStart = i;
+        }
+      }
+    }
+    if (tokenStart != -1) {
+      patternBuilder.append(Pattern.quote(globPattern.substring(tokenStart)));
+    }
+    return Pattern.compile(patternBuilder.toString());
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.awsxray;
+
+import io.opentelemetry.sdk.common.Clock;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of {@link RateLimiter#trySpend} under contention. With a few credits per
+ * second, as for the reservoir of a sampling rule, almost every call fails after only reading the
+ * balance, so threads share its cache line rather than contend on it. With many credits per
+ * second, most calls succeed and update the balance with a compare-and-set.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+  @Param({"5", "100000000"})
+  public int creditsPerSecond;
+
+  private RateLimiter rateLimiter;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    rateLimiter = new RateLimiter(creditsPerSecond, creditsPerSecond, Clock.getDefault());
+  }
+
+  @Benchmark
+  @Threads(1)
+  public boolean rateLimiter_01Thread() {
+    return rateLimiter.trySpend(1);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public boolean rateLimiter_04Threads() {
+    return rateLimiter.trySpend(1);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public boolean rateLimiter_16Threads() {
+    return rateLimiter.trySpend(1);
+  }
+}
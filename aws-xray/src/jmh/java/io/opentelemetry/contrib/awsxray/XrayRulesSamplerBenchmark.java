@@ -0,0 +1,120 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.awsxray;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.contrib.awsxray.GetSamplingRulesResponse.SamplingRule;
+import io.opentelemetry.contrib.awsxray.SamplingRuleApplier.ResourceValues;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.semconv.trace.attributes.SemanticAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time to select the sampling rule of a span with the {@link SamplingRuleIndex} used
+ * by {@link XrayRulesSampler}, against testing every rule in priority order. The rules are keyed
+ * by service name, host, URL path or HTTP method in turn, and the span only matches the default
+ * rule, which comes last, so that a linear scan tests every rule.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XrayRulesSamplerBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int ruleCount;
+
+  private SamplingRuleIndex index;
+  private SamplingRuleApplier[] appliers;
+  private ResourceValues resourceValues;
+  private Attributes attributes;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    List<SamplingRule> rules = new ArrayList<>();
+    for (int i = 0; i < ruleCount - 1; i++) {
+      switch (i % 4) {
+        case 0:
+          rules.add(rule(i, "service-" + i, "*", "*", "*"));
+          break;
+        case 1:
+          rules.add(rule(i, "*", "host-" + i + ".example.com", "*", "*"));
+          break;
+        case 2:
+          rules.add(rule(i, "*", "*", "*", "/api/v1/resource-" + i + "/*"));
+          break;
+        default:
+          rules.add(rule(i, "*-" + i, "*", i % 8 == 3 ? "POST" : "PUT", "*"));
+          break;
+      }
+    }
+    rules.add(rule(Integer.MAX_VALUE, "*", "*", "*", "*"));
+
+    resourceValues = ResourceValues.create(Resource.empty());
+    index = SamplingRuleIndex.create(rules);
+    appliers =
+        rules.stream()
+            .map(rule -> new SamplingRuleApplier("benchmark-client-id", rule, Clock.getDefault()))
+            .toArray(SamplingRuleApplier[]::new);
+    attributes =
+        Attributes.builder()
+            .put(SemanticAttributes.HTTP_METHOD, "GET")
+            .put(SemanticAttributes.HTTP_HOST, "host.example.com")
+            .put(SemanticAttributes.HTTP_TARGET, "/api/v2/resource-2/items")
+            .build();
+  }
+
+  @Benchmark
+  public SamplingRuleApplier indexed() {
+    return appliers[index.firstMatch(appliers, "service", attributes, resourceValues)];
+  }
+
+  @Benchmark
+  public SamplingRuleApplier linearScan() {
+    for (SamplingRuleApplier applier : appliers) {
+      if (applier.matches("service", attributes, resourceValues)) {
+        return applier;
+      }
+    }
+    throw new AssertionError("The default rule matches every span");
+  }
+
+  private static SamplingRule rule(
+      int priority, String serviceName, String host, String httpMethod, String urlPath) {
+    return SamplingRule.create(
+        Collections.emptyMap(),
+        0.05,
+        host,
+        httpMethod,
+        priority,
+        1,
+        "*",
+        "*",
+        "rule-" + priority,
+        serviceName,
+        "*",
+        urlPath,
+        1);
+  }
+}
@@ -6,6 +6,7 @@
 package io.opentelemetry.contrib.awsxray;
 
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.MeterProvider;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.contrib.awsxray.GetSamplingRulesResponse.SamplingRuleRecord;
@@ -50,6 +51,8 @@ public final class AwsXrayRemoteSampler implements Sampler, Closeable {
   private final String clientId;
   private final long pollingIntervalNanos;
   private final int jitterNanos;
+  private final int ruleMatchCacheSize;
+  private final XraySamplerMetrics metrics;
 
   @Nullable private volatile ScheduledFuture<?> pollFuture;
   @Nullable private volatile ScheduledFuture<?> fetchTargetsFuture;
@@ -71,7 +74,9 @@ public final class AwsXrayRemoteSampler implements Sampler, Closeable {
       Clock clock,
       String endpoint,
       Sampler initialSampler,
-      long pollingIntervalNanos) {
+      long pollingIntervalNanos,
+      int ruleMatchCacheSize,
+      MeterProvider meterProvider) {
     this.resource = resource;
     this.clock = clock;
     this.initialSampler = initialSampler;
@@ -97,6 +102,9 @@ public final class AwsXrayRemoteSampler implements Sampler, Closeable {
     // Add ~1% of jitter. Truncating to int is safe for any practical polling interval.
     jitterNanos = (int) (pollingIntervalNanos / 100);
 
+    this.ruleMatchCacheSize = ruleMatchCacheSize;
+    metrics = new XraySamplerMetrics(meterProvider);
+
     // Execute first update right away on the executor thread.
     executor.execute(this::getAndUpdateSampler);
   }
@@ -123,6 +131,8 @@ public final class AwsXrayRemoteSampler implements Sampler, Closeable {
       GetSamplingRulesResponse response =
           client.getSamplingRules(GetSamplingRulesRequest.create(null));
       if (!response.equals(previousRulesResponse)) {
+        // The new sampler starts with an empty rule match cache, as the positions of the rules
+        // changed.
         sampler =
             new XrayRulesSampler(
                 clientId,
@@ -131,7 +141,9 @@ public final class AwsXrayRemoteSampler implements Sampler, Closeable {
                 initialSampler,
                 response.getSamplingRules().stream()
                     .map(SamplingRuleRecord::getRule)
-                    .collect(Collectors.toList()));
+                    .collect(Collectors.toList()),
+                ruleMatchCacheSize,
+                metrics);
         previousRulesResponse = response;
         ScheduledFuture<?> existingFetchTargetsFuture = fetchTargetsFuture;
         if (existingFetchTargetsFuture != null) {
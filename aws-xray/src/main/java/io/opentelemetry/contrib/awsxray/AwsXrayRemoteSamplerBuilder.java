@@ -7,6 +7,7 @@ package io.opentelemetry.contrib.awsxray;
 
 import static java.util.Objects.requireNonNull;
 
+import io.opentelemetry.api.metrics.MeterProvider;
 import io.opentelemetry.sdk.common.Clock;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.samplers.Sampler;
@@ -26,6 +27,8 @@ public final class AwsXrayRemoteSamplerBuilder {
   private String endpoint = DEFAULT_ENDPOINT;
   @Nullable private Sampler initialSampler;
   private long pollingIntervalNanos = TimeUnit.SECONDS.toNanos(DEFAULT_POLLING_INTERVAL_SECS);
+  private int ruleMatchCacheSize;
+  private MeterProvider meterProvider = MeterProvider.noop();
 
   AwsXrayRemoteSamplerBuilder(Resource resource) {
     this.resource = resource;
@@ -84,6 +87,31 @@ public final class AwsXrayRemoteSamplerBuilder {
     return this;
   }
 
+  /**
+   * Sets the maximum number of entries of the cache of the sampling rule matching a span, keyed by
+   * the span name, HTTP method, HTTP target and host, so that repeated requests skip matching the
+   * rules. The cache is cleared whenever new sampling rules are fetched, and is not used while any
+   * rule matches custom attributes or a resource ARN. If unset, defaults to {@code 0}, which
+   * disables the cache.
+   */
+  public AwsXrayRemoteSamplerBuilder setRuleMatchCacheSize(int ruleMatchCacheSize) {
+    if (ruleMatchCacheSize < 0) {
+      throw new IllegalArgumentException("ruleMatchCacheSize must be non-negative");
+    }
+    this.ruleMatchCacheSize = ruleMatchCacheSize;
+    return this;
+  }
+
+  /**
+   * Sets the {@link MeterProvider} used to record the hits and misses of the rule match cache. If
+   * unset, no metrics are recorded.
+   */
+  public AwsXrayRemoteSamplerBuilder setMeterProvider(MeterProvider meterProvider) {
+    requireNonNull(meterProvider, "meterProvider");
+    this.meterProvider = meterProvider;
+    return this;
+  }
+
   /** Returns a {@link AwsXrayRemoteSampler} with the configuration of this builder. */
   public AwsXrayRemoteSampler build() {
     Sampler initialSampler = this.initialSampler;
@@ -94,6 +122,12 @@ public final class AwsXrayRemoteSamplerBuilder {
                   new RateLimitingSampler(1, clock), Sampler.traceIdRatioBased(0.05)));
     }
     return new AwsXrayRemoteSampler(
-        resource, clock, endpoint, initialSampler, pollingIntervalNanos);
+        resource,
+        clock,
+        endpoint,
+        initialSampler,
+        pollingIntervalNanos,
+        ruleMatchCacheSize,
+        meterProvider);
   }
 }
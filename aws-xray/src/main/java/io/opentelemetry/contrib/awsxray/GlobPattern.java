@@ -0,0 +1,139 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.awsxray;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A glob pattern of X-Ray sampling rules, where {@code *} matches any number of characters and
+ * {@code ?} matches exactly one character. Like literal values, patterns match ignoring case.
+ *
+ * <p>The pattern is split on {@code *} into segments. The first segment must match the start of
+ * the string and the last one its end; the segments in between are searched for left to right,
+ * each from where the previous one ended. Taking the leftmost occurrence of a segment is always
+ * right, as it leaves the most of the string to the following segments, so matching never
+ * backtracks. Segments are searched with the Knuth-Morris-Pratt algorithm, using a failure table
+ * computed once per pattern, so that a string of length {@code n} is matched in {@code O(n + m)}
+ * time for a pattern of length {@code m}, without allocating.
+ *
+ * <p>Segments containing {@code ?} are compared at every position instead, in {@code O(n * k)}
+ * time for a segment of length {@code k}: a failure table relies on equality being transitive,
+ * which {@code ?} is not, as {@code a} and {@code b} both match {@code ?} but not each other.
+ * Searching with such wildcards in linear time takes far more machinery than sampling rules
+ * warrant.
+ */
+final class GlobPattern {
+  private final String pattern;
+  // The pattern split on *, with every character folded, see foldCase.
+  private final char[][] segments;
+  // The failure table of every segment, or null for the segments containing ?.
+  private final int[][] failureTables;
+
+  static GlobPattern compile(String pattern) {
+    return new GlobPattern(pattern);
+  }
+
+  private GlobPattern(String pattern) {
+    this.pattern = pattern;
+    String[] parts = pattern.split("\\*", -1);
+    segments = new char[parts.length][];
+    failureTables = new int[parts.length][];
+    for (int i = 0; i < parts.length; i++) {
+      char[] segment = new char[parts[i].length()];
+      for (int j = 0; j < segment.length; j++) {
+        segment[j] = foldCase(parts[i].charAt(j));
+      }
+      segments[i] = segment;
+      failureTables[i] = parts[i].indexOf('?') == -1 ? failureTable(segment) : null;
+    }
+  }
+
+  boolean matches(String s) {
+    char[] first = segments[0];
+    if (segments.length == 1) {
+      return s.length() == first.length && matchesAt(first, s, 0);
+    }
+    char[] last = segments[segments.length - 1];
+    int end = s.length() - last.length;
+    if (end < first.length || !matchesAt(first, s, 0) || !matchesAt(last, s, end)) {
+      return false;
+    }
+    int start = first.length;
+    for (int i = 1; i < segments.length - 1; i++) {
+      start = indexAfter(segments[i], failureTables[i], s, start, end);
+      if (start == -1) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Returns the index after the leftmost occurrence of the segment in s between start and end, or
+  // -1 if it does not occur there.
+  private static int indexAfter(
+      char[] segment, @Nullable int[] failureTable, String s, int start, int end) {
+    if (failureTable == null) {
+      for (int i = start; i <= end - segment.length; i++) {
+        if (matchesAt(segment, s, i)) {
+          return i + segment.length;
+        }
+      }
+      return -1;
+    }
+    if (segment.length == 0) {
+      return start;
+    }
+    int matched = 0;
+    for (int i = start; i < end; i++) {
+      char c = foldCase(s.charAt(i));
+      while (matched > 0 && segment[matched] != c) {
+        matched = failureTable[matched - 1];
+      }
+      if (segment[matched] == c && ++matched == segment.length) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  // Returns whether the segment matches s at the index, which leaves enough characters for it.
+  private static boolean matchesAt(char[] segment, String s, int index) {
+    for (int i = 0; i < segment.length; i++) {
+      char p = segment[i];
+      if (p != '?' && p != foldCase(s.charAt(index + i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Returns, for every prefix of the segment, the length of its longest proper prefix that is also
+  // a suffix of it, which is where a search resumes once the next character stops matching.
+  private static int[] failureTable(char[] segment) {
+    int[] failureTable = new int[segment.length];
+    int length = 0;
+    for (int i = 1; i < segment.length; i++) {
+      while (length > 0 && segment[i] != segment[length]) {
+        length = failureTable[length - 1];
+      }
+      if (segment[i] == segment[length]) {
+        length++;
+      }
+      failureTable[i] = length;
+    }
+    return failureTable;
+  }
+
+  // Folds the case of a character the way String.equalsIgnoreCase compares characters.
+  private static char foldCase(char c) {
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+  @Override
+  public String toString() {
+    return pattern;
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.awsxray;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.contrib.awsxray.GetSamplingRulesResponse.SamplingRule;
+import io.opentelemetry.semconv.trace.attributes.SemanticAttributes;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A bounded cache of the position of the sampling rule matching a span, keyed by its name, HTTP
+ * method, HTTP target and host, so that repeated requests skip matching the rules. It only applies
+ * to rules whose match depends on nothing else, see {@link #supports(SamplingRule)}.
+ *
+ * <p>The entries are held in an open addressing table with linear probing, which a lookup probes
+ * comparing the name and attributes of the span to the fields of the entries, so that a hit
+ * allocates nothing. Entries are evicted with the CLOCK algorithm, an approximation of LRU: a hit
+ * only sets the referenced bit of its entry, without locking, and a miss sweeps the entries from
+ * the clock hand, clearing their referenced bit, until it finds an unreferenced entry to replace.
+ * Misses are serialized, which is fine as long as the cache is large enough for most lookups to
+ * hit. A lookup racing with an eviction may miss an entry being moved in the table, which only
+ * costs matching the rules again.
+ */
+final class RuleMatchCache {
+  // Returned by get when the cache has no entry for the span.
+  static final int ABSENT = Integer.MIN_VALUE;
+  private static final int MAX_CAPACITY = 1 << 28;
+
+  private final XraySamplerMetrics metrics;
+  // At least twice the capacity, and a power of two.
+  private final AtomicReferenceArray<Entry> table;
+  private final int mask;
+
+  // The entries in the order of the clock, guarded by this.
+  private final Entry[] clock;
+  private int hand;
+  private int size;
+
+  // Returns whether the rule only matches spans based on the key of the cache, and the resource,
+  // which does not change. Rules with attribute matchers or a resource ARN, which can be taken from
+  // the span attributes, are not supported.
+  static boolean supports(SamplingRule rule) {
+    return rule.getAttributes().isEmpty() && rule.getResourceArn().equals("*");
+  }
+
+  RuleMatchCache(int capacity, XraySamplerMetrics metrics) {
+    if (capacity <= 0 || capacity > MAX_CAPACITY) {
+      throw new IllegalArgumentException("capacity must be positive and at most 2^28");
+    }
+    this.metrics = metrics;
+    this.table = new AtomicReferenceArray<>(Integer.highestOneBit(capacity) << 2);
+    this.mask = table.length() - 1;
+    this.clock = new Entry[capacity];
+  }
+
+  // Returns the cached position of the rule matching the span, -1 if no rule matches, or ABSENT.
+  int get(String name, Attributes attributes) {
+    Entry entry = find(name, attributes);
+    if (entry == null) {
+      metrics.recordRuleMatchCacheMiss();
+      return ABSENT;
+    }
+    metrics.recordRuleMatchCacheHit();
+    // Only write when needed, to keep the cache line of hot entries shared.
+    if (!entry.referenced) {
+      entry.referenced = true;
+    }
+    return entry.position;
+  }
+
+  synchronized void put(String name, Attributes attributes, int position) {
+    if (find(name, attributes) != null) {
+      // Another thread missed on the same span concurrently.
+      return;
+    }
+    Entry entry =
+        new Entry(
+            name,
+            attributes.get(SemanticAttributes.HTTP_METHOD),
+            attributes.get(SemanticAttributes.HTTP_TARGET),
+            attributes.get(SemanticAttributes.HTTP_HOST),
+            position);
+    if (size < clock.length) {
+      clock[size++] = entry;
+    } else {
+      while (clock[hand].referenced) {
+        clock[hand].referenced = false;
+        hand = (hand + 1) % clock.length;
+      }
+      remove(clock[hand]);
+      clock[hand] = entry;
+      hand = (hand + 1) % clock.length;
+    }
+    int slot = entry.hash & mask;
+    while (table.get(slot) != null) {
+      slot = (slot + 1) & mask;
+    }
+    table.set(slot, entry);
+  }
+
+  @Nullable
+  private Entry find(String name, Attributes attributes) {
+    String httpMethod = attributes.get(SemanticAttributes.HTTP_METHOD);
+    String httpTarget = attributes.get(SemanticAttributes.HTTP_TARGET);
+    String host = attributes.get(SemanticAttributes.HTTP_HOST);
+    int hash = hash(name, httpMethod, httpTarget, host);
+    // Bounded, as concurrent evictions may move entries around.
+    for (int i = 0, slot = hash & mask; i <= mask; i++, slot = (slot + 1) & mask) {
+      Entry entry = table.get(slot);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.hash == hash
+          && entry.name.equals(name)
+          && Objects.equals(entry.httpMethod, httpMethod)
+          && Objects.equals(entry.httpTarget, httpTarget)
+          && Objects.equals(entry.host, host)) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  // Removes the entry and shifts back the following entries of its cluster that would no longer be
+  // reachable from their home slot, so that the table needs no tombstones.
+  private void remove(Entry entry) {
+    int hole = entry.hash & mask;
+    while (table.get(hole) != entry) {
+      hole = (hole + 1) & mask;
+    }
+    for (int slot = (hole + 1) & mask; ; slot = (slot + 1) & mask) {
+      Entry next = table.get(slot);
+      if (next == null) {
+        break;
+      }
+      // The entry can fill the hole if its home slot is not between the hole and its slot.
+      if (((slot - next.hash) & mask) >= ((slot - hole) & mask)) {
+        table.set(hole, next);
+        hole = slot;
+      }
+    }
+    table.set(hole, null);
+  }
+
+  private static int hash(
+      String name,
+      @Nullable String httpMethod,
+      @Nullable String httpTarget,
+      @Nullable String host) {
+    int hash = name.hashCode();
+    hash = 31 * hash + Objects.hashCode(httpMethod);
+    hash = 31 * hash + Objects.hashCode(httpTarget);
+    hash = 31 * hash + Objects.hashCode(host);
+    // Spread the high bits, as only the low bits pick the slot.
+    return hash ^ (hash >>> 16);
+  }
+
+  private static final class Entry {
+    private final String name;
+    @Nullable private final String httpMethod;
+    @Nullable private final String httpTarget;
+    @Nullable private final String host;
+    private final int hash;
+    private final int position;
+    private volatile boolean referenced;
+
+    private Entry(
+        String name,
+        @Nullable String httpMethod,
+        @Nullable String httpTarget,
+        @Nullable String host,
+        int position) {
+      this.name = name;
+      this.httpMethod = httpMethod;
+      this.httpTarget = httpTarget;
+      this.host = host;
+      this.hash = hash(name, httpMethod, httpTarget, host);
+      this.position = position;
+    }
+  }
+}
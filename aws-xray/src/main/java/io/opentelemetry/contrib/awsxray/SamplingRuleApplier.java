@@ -27,7 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
-import java.util.regex.Pattern;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -48,6 +48,9 @@ final class SamplingRuleApplier {
     XRAY_CLOUD_PLATFORM = Collections.unmodifiableMap(xrayCloudPlatform);
   }
 
+  private static final ThreadLocal<AttributesMatch> ATTRIBUTES_MATCHES =
+      ThreadLocal.withInitial(AttributesMatch::new);
+
   private final String clientId;
   private final String ruleName;
   private final Clock clock;
@@ -144,42 +147,23 @@ final class SamplingRuleApplier {
     this.nextSnapshotTimeNanos = nextSnapshotTimeNanos;
   }
 
-  boolean matches(String name, Attributes attributes, Resource resource) {
-    int matchedAttributes = 0;
-    String httpTarget = null;
-    String httpMethod = null;
-    String host = null;
-
-    for (Map.Entry<AttributeKey<?>, Object> entry : attributes.asMap().entrySet()) {
-      if (entry.getKey().equals(SemanticAttributes.HTTP_TARGET)) {
-        httpTarget = (String) entry.getValue();
-      } else if (entry.getKey().equals(SemanticAttributes.HTTP_METHOD)) {
-        httpMethod = (String) entry.getValue();
-      } else if (entry.getKey().equals(SemanticAttributes.HTTP_HOST)) {
-        host = (String) entry.getValue();
-      }
-
-      Matcher matcher = attributeMatchers.get(entry.getKey().getKey());
-      if (matcher == null) {
-        continue;
-      }
-      if (matcher.matches(entry.getValue().toString())) {
-        matchedAttributes++;
-      } else {
-        return false;
-      }
-    }
-    // All attributes in the matched attributes must have been present in the span to be a match.
-    if (matchedAttributes != attributeMatchers.size()) {
+  // Does not allocate, unless the rule matches custom attributes whose values are not strings.
+  boolean matches(String name, Attributes attributes, ResourceValues resourceValues) {
+    if (!serviceNameMatcher.matches(name)
+        || !urlPathMatcher.matches(attributes.get(SemanticAttributes.HTTP_TARGET))
+        || !httpMethodMatcher.matches(attributes.get(SemanticAttributes.HTTP_METHOD))
+        || !hostMatcher.matches(attributes.get(SemanticAttributes.HTTP_HOST))
+        || !serviceTypeMatcher.matches(resourceValues.serviceType)
+        || !resourceArnMatcher.matches(resourceValues.getArn(attributes))) {
       return false;
     }
-
-    return urlPathMatcher.matches(httpTarget)
-        && serviceNameMatcher.matches(name)
-        && httpMethodMatcher.matches(httpMethod)
-        && hostMatcher.matches(host)
-        && serviceTypeMatcher.matches(getServiceType(resource))
-        && resourceArnMatcher.matches(getArn(attributes, resource));
+    if (attributeMatchers.isEmpty()) {
+      return true;
+    }
+    AttributesMatch attributesMatch = ATTRIBUTES_MATCHES.get();
+    attributesMatch.reset(attributeMatchers);
+    attributes.forEach(attributesMatch);
+    return attributesMatch.matches();
   }
 
   SamplingResult shouldSample(
@@ -296,28 +280,6 @@ final class SamplingRuleApplier {
     return ruleName;
   }
 
-  @Nullable
-  private static String getArn(Attributes attributes, Resource resource) {
-    String arn = resource.getAttributes().get(ResourceAttributes.AWS_ECS_CONTAINER_ARN);
-    if (arn != null) {
-      return arn;
-    }
-    String cloudPlatform = resource.getAttributes().get(ResourceAttributes.CLOUD_PLATFORM);
-    if (ResourceAttributes.CloudPlatformValues.AWS_LAMBDA.equals(cloudPlatform)) {
-      return getLambdaArn(attributes, resource);
-    }
-    return null;
-  }
-
-  @Nullable
-  private static String getLambdaArn(Attributes attributes, Resource resource) {
-    String arn = resource.getAttributes().get(ResourceAttributes.FAAS_ID);
-    if (arn != null) {
-      return arn;
-    }
-    return attributes.get(ResourceAttributes.FAAS_ID);
-  }
-
   @Nullable
   private static String getServiceType(Resource resource) {
     String cloudPlatform = resource.getAttributes().get(ResourceAttributes.CLOUD_PLATFORM);
@@ -335,39 +297,80 @@ final class SamplingRuleApplier {
     for (int i = 0; i < globPattern.length(); i++) {
       char c = globPattern.charAt(i);
       if (c == '*' || c == '?') {
-        return new PatternMatcher(toRegexPattern(globPattern));
+        return new PatternMatcher(GlobPattern.compile(globPattern));
       }
     }
 
     return new StringMatcher(globPattern);
   }
 
-  private static Pattern toRegexPattern(String globPattern) {
-    int tokenStart = -1;
-    StringBuilder patternBuilder = new StringBuilder();
-    for (int i = 0; i < globPattern.length(); i++) {
-      char c = globPattern.charAt(i);
-      if (c == '*' || c == '?') {
-        if (tokenStart != -1) {
-          patternBuilder.append(Pattern.quote(globPattern.substring(tokenStart, i)));
-          tokenStart = -1;
-        }
-        if (c == '*') {
-          patternBuilder.append(".*");
-        } else {
-          // c == '?'
-          patternBuilder.append(".");
-        }
+  // The values of a resource that rules match, which are computed once for the resource.
+  static final class ResourceValues {
+    @Nullable private final String serviceType;
+    @Nullable private final String arn;
+    // The resource of a Lambda function may lack its ARN, which is then taken from the span.
+    private final boolean arnFromSpan;
+
+    static ResourceValues create(Resource resource) {
+      String serviceType = getServiceType(resource);
+      String arn = resource.getAttributes().get(ResourceAttributes.AWS_ECS_CONTAINER_ARN);
+      if (arn != null) {
+        return new ResourceValues(serviceType, arn, false);
+      }
+      String cloudPlatform = resource.getAttributes().get(ResourceAttributes.CLOUD_PLATFORM);
+      if (ResourceAttributes.CloudPlatformValues.AWS_LAMBDA.equals(cloudPlatform)) {
+        arn = resource.getAttributes().get(ResourceAttributes.FAAS_ID);
+        return new ResourceValues(serviceType, arn, arn == null);
+      }
+      return new ResourceValues(serviceType, null, false);
+    }
+
+    private ResourceValues(
+        @Nullable String serviceType, @Nullable String arn, boolean arnFromSpan) {
+      this.serviceType = serviceType;
+      this.arn = arn;
+      this.arnFromSpan = arnFromSpan;
+    }
+
+    @Nullable
+    private String getArn(Attributes attributes) {
+      return arnFromSpan ? attributes.get(ResourceAttributes.FAAS_ID) : arn;
+    }
+  }
+
+  // Matches the attributes of a span against the attribute matchers of a rule, all of which must
+  // match an attribute of the span. Every thread reuses one, so that matching allocates no
+  // callback.
+  private static final class AttributesMatch implements BiConsumer<AttributeKey<?>, Object> {
+    private Map<String, Matcher> attributeMatchers = Collections.emptyMap();
+    private int matchedAttributes;
+    private boolean mismatch;
+
+    private void reset(Map<String, Matcher> attributeMatchers) {
+      this.attributeMatchers = attributeMatchers;
+      matchedAttributes = 0;
+      mismatch = false;
+    }
+
+    @Override
+    public void accept(AttributeKey<?> key, Object value) {
+      if (mismatch) {
+        return;
+      }
+      Matcher matcher = attributeMatchers.get(key.getKey());
+      if (matcher == null) {
+        return;
+      }
+      if (matcher.matches(value.toString())) {
+        matchedAttributes++;
       } else {
-        if (tokenStart == -1) {
-          tokenStart = i;
-        }
+        mismatch = true;
       }
     }
-    if (tokenStart != -1) {
-      patternBuilder.append(Pattern.quote(globPattern.substring(tokenStart)));
+
+    private boolean matches() {
+      return !mismatch && matchedAttributes == attributeMatchers.size();
     }
-    return Pattern.compile(patternBuilder.toString());
   }
 
   private interface Matcher {
@@ -411,9 +414,9 @@ final class SamplingRuleApplier {
   }
 
   private static class PatternMatcher implements Matcher {
-    private final Pattern pattern;
+    private final GlobPattern pattern;
 
-    PatternMatcher(Pattern pattern) {
+    PatternMatcher(GlobPattern pattern) {
       this.pattern = pattern;
     }
 
@@ -422,7 +425,7 @@ final class SamplingRuleApplier {
       if (s == null) {
         return false;
       }
-      return pattern.matcher(s).matches();
+      return pattern.matches(s);
     }
 
     @Override
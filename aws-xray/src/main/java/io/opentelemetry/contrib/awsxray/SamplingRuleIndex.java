@@ -0,0 +1,226 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.awsxray;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.contrib.awsxray.GetSamplingRulesResponse.SamplingRule;
+import io.opentelemetry.contrib.awsxray.SamplingRuleApplier.ResourceValues;
+import io.opentelemetry.semconv.trace.attributes.SemanticAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An index of the sampling rules, built when they are loaded, that narrows the rules tested for a
+ * span down to the candidates that can match it.
+ *
+ * <p>Every rule is indexed under a single literal it requires: its service name, host, the literal
+ * prefix of its URL path or its HTTP method, in that order of preference. A rule whose service
+ * name, host or HTTP method is a literal only matches spans with that exact value, compared
+ * ignoring case, and a rule whose URL path starts with a literal only matches targets starting with
+ * it. The candidates are looked up in sorted maps for the literals and in a trie for the URL path
+ * prefixes; the rules without any such literal are always candidates. The candidates are then
+ * tested in priority order, and the first one that fully matches wins, so the result is the same as
+ * testing every rule in priority order.
+ */
+final class SamplingRuleIndex {
+  private static final int[] NO_RULES = new int[0];
+
+  // The positions, in priority order, of the rules indexed under each literal.
+  private final TreeMap<String, int[]> byServiceName;
+  private final TreeMap<String, int[]> byHost;
+  private final TreeMap<String, int[]> byHttpMethod;
+  private final TrieNode byUrlPathPrefix;
+  private final int[] unindexed;
+
+  // The rules must be sorted in priority order.
+  static SamplingRuleIndex create(List<SamplingRule> rules) {
+    Map<String, List<Integer>> byServiceName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    Map<String, List<Integer>> byHost = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    Map<String, List<Integer>> byHttpMethod = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    TrieNode.Builder byUrlPathPrefix = new TrieNode.Builder();
+    List<Integer> unindexed = new ArrayList<>();
+    for (int position = 0; position < rules.size(); position++) {
+      SamplingRule rule = rules.get(position);
+      String urlPathPrefix = literalPrefix(rule.getUrlPath());
+      if (isLiteral(rule.getServiceName())) {
+        byServiceName.computeIfAbsent(rule.getServiceName(), k -> new ArrayList<>()).add(position);
+      } else if (isLiteral(rule.getHost())) {
+        byHost.computeIfAbsent(rule.getHost(), k -> new ArrayList<>()).add(position);
+      } else if (!urlPathPrefix.isEmpty()) {
+        byUrlPathPrefix.add(urlPathPrefix, position);
+      } else if (isLiteral(rule.getHttpMethod())) {
+        byHttpMethod.computeIfAbsent(rule.getHttpMethod(), k -> new ArrayList<>()).add(position);
+      } else {
+        unindexed.add(position);
+      }
+    }
+    return new SamplingRuleIndex(
+        toPositionMap(byServiceName),
+        toPositionMap(byHost),
+        toPositionMap(byHttpMethod),
+        byUrlPathPrefix.build(),
+        toPositions(unindexed));
+  }
+
+  private SamplingRuleIndex(
+      TreeMap<String, int[]> byServiceName,
+      TreeMap<String, int[]> byHost,
+      TreeMap<String, int[]> byHttpMethod,
+      TrieNode byUrlPathPrefix,
+      int[] unindexed) {
+    this.byServiceName = byServiceName;
+    this.byHost = byHost;
+    this.byHttpMethod = byHttpMethod;
+    this.byUrlPathPrefix = byUrlPathPrefix;
+    this.unindexed = unindexed;
+  }
+
+  // Returns the position of the first rule in priority order matching the span, or -1 if none
+  // does. The appliers must be in the order of the rules the index was created from.
+  int firstMatch(
+      SamplingRuleApplier[] appliers,
+      String name,
+      Attributes attributes,
+      ResourceValues resourceValues) {
+    int best = Integer.MAX_VALUE;
+    best = firstMatchBefore(unindexed, best, appliers, name, attributes, resourceValues);
+    best =
+        firstMatchBefore(
+            get(byServiceName, name), best, appliers, name, attributes, resourceValues);
+    String host = attributes.get(SemanticAttributes.HTTP_HOST);
+    best = firstMatchBefore(get(byHost, host), best, appliers, name, attributes, resourceValues);
+    String httpMethod = attributes.get(SemanticAttributes.HTTP_METHOD);
+    best =
+        firstMatchBefore(
+            get(byHttpMethod, httpMethod), best, appliers, name, attributes, resourceValues);
+    String httpTarget = attributes.get(SemanticAttributes.HTTP_TARGET);
+    if (httpTarget != null) {
+      TrieNode node = byUrlPathPrefix;
+      for (int i = 0; i < httpTarget.length(); i++) {
+        node = node.child(httpTarget.charAt(i));
+        if (node == null) {
+          break;
+        }
+        best =
+            firstMatchBefore(node.positions, best, appliers, name, attributes, resourceValues);
+      }
+    }
+    return best == Integer.MAX_VALUE ? -1 : best;
+  }
+
+  // Returns the position of the first of the given rules matching the span, if it comes before the
+  // best match so far, or the best match so far otherwise.
+  private static int firstMatchBefore(
+      int[] positions,
+      int best,
+      SamplingRuleApplier[] appliers,
+      String name,
+      Attributes attributes,
+      ResourceValues resourceValues) {
+    for (int position : positions) {
+      if (position >= best) {
+        break;
+      }
+      if (appliers[position].matches(name, attributes, resourceValues)) {
+        return position;
+      }
+    }
+    return best;
+  }
+
+  private static int[] get(TreeMap<String, int[]> positionMap, @Nullable String value) {
+    if (value == null) {
+      return NO_RULES;
+    }
+    int[] positions = positionMap.get(value);
+    return positions != null ? positions : NO_RULES;
+  }
+
+  // A pattern without glob characters only matches the same string, ignoring case.
+  private static boolean isLiteral(String pattern) {
+    return literalPrefix(pattern).length() == pattern.length();
+  }
+
+  // Returns the part of the pattern before its first glob character.
+  private static String literalPrefix(String pattern) {
+    for (int i = 0; i < pattern.length(); i++) {
+      char c = pattern.charAt(i);
+      if (c == '*' || c == '?') {
+        return pattern.substring(0, i);
+      }
+    }
+    return pattern;
+  }
+
+  private static TreeMap<String, int[]> toPositionMap(Map<String, List<Integer>> positionLists) {
+    TreeMap<String, int[]> positionMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (Map.Entry<String, List<Integer>> entry : positionLists.entrySet()) {
+      positionMap.put(entry.getKey(), toPositions(entry.getValue()));
+    }
+    return positionMap;
+  }
+
+  private static int[] toPositions(List<Integer> positionList) {
+    if (positionList.isEmpty()) {
+      return NO_RULES;
+    }
+    return positionList.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  // Folds the case of a character the way String.equalsIgnoreCase compares characters.
+  private static char foldCase(char c) {
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+  // A node of the trie of URL path prefixes, holding the rules whose prefix ends at the node. The
+  // characters are folded so that a lookup finds the prefixes regardless of case.
+  private static final class TrieNode {
+    private final char[] keys;
+    private final TrieNode[] children;
+    private final int[] positions;
+
+    private TrieNode(char[] keys, TrieNode[] children, int[] positions) {
+      this.keys = keys;
+      this.children = children;
+      this.positions = positions;
+    }
+
+    @Nullable
+    TrieNode child(char c) {
+      int i = Arrays.binarySearch(keys, foldCase(c));
+      return i >= 0 ? children[i] : null;
+    }
+
+    private static final class Builder {
+      private final TreeMap<Character, Builder> children = new TreeMap<>();
+      private final List<Integer> positions = new ArrayList<>();
+
+      void add(String prefix, int position) {
+        Builder node = this;
+        for (int i = 0; i < prefix.length(); i++) {
+          node = node.children.computeIfAbsent(foldCase(prefix.charAt(i)), k -> new Builder());
+        }
+        node.positions.add(position);
+      }
+
+      TrieNode build() {
+        char[] keys = new char[children.size()];
+        TrieNode[] childNodes = new TrieNode[children.size()];
+        int i = 0;
+        for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+          keys[i] = entry.getKey();
+          childNodes[i] = entry.getValue().build();
+          i++;
+        }
+        return new TrieNode(keys, childNodes, toPositions(positions));
+      }
+    }
+  }
+}
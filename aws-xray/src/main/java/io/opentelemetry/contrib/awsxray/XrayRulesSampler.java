@@ -10,6 +10,7 @@ import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.contrib.awsxray.GetSamplingRulesResponse.SamplingRule;
 import io.opentelemetry.contrib.awsxray.GetSamplingTargetsResponse.SamplingTargetDocument;
+import io.opentelemetry.contrib.awsxray.SamplingRuleApplier.ResourceValues;
 import io.opentelemetry.sdk.common.Clock;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.data.LinkData;
@@ -25,16 +26,20 @@ import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 final class XrayRulesSampler implements Sampler {
 
   private static final Logger logger = Logger.getLogger(XrayRulesSampler.class.getName());
 
   private final String clientId;
-  private final Resource resource;
+  private final ResourceValues resourceValues;
   private final Clock clock;
   private final Sampler fallbackSampler;
   private final SamplingRuleApplier[] ruleAppliers;
+  private final SamplingRuleIndex ruleIndex;
+  // Null if disabled, or if the match of some rule depends on more than the key of the cache.
+  @Nullable private final RuleMatchCache ruleMatchCache;
 
   XrayRulesSampler(
       String clientId,
@@ -42,6 +47,17 @@ final class XrayRulesSampler implements Sampler {
       Clock clock,
       Sampler fallbackSampler,
       List<SamplingRule> rules) {
+    this(clientId, resource, clock, fallbackSampler, rules, 0, XraySamplerMetrics.NOOP);
+  }
+
+  XrayRulesSampler(
+      String clientId,
+      Resource resource,
+      Clock clock,
+      Sampler fallbackSampler,
+      List<SamplingRule> rules,
+      int ruleMatchCacheSize,
+      XraySamplerMetrics metrics) {
     this(
         clientId,
         resource,
@@ -50,8 +66,9 @@ final class XrayRulesSampler implements Sampler {
         rules.stream()
             // Lower priority value takes precedence so normal ascending sort.
             .sorted(Comparator.comparingInt(GetSamplingRulesResponse.SamplingRule::getPriority))
-            .map(rule -> new SamplingRuleApplier(clientId, rule, clock))
-            .toArray(SamplingRuleApplier[]::new));
+            .toArray(SamplingRule[]::new),
+        ruleMatchCacheSize,
+        metrics);
   }
 
   private XrayRulesSampler(
@@ -59,12 +76,39 @@ final class XrayRulesSampler implements Sampler {
       Resource resource,
       Clock clock,
       Sampler fallbackSampler,
-      SamplingRuleApplier[] ruleAppliers) {
+      SamplingRule[] sortedRules,
+      int ruleMatchCacheSize,
+      XraySamplerMetrics metrics) {
+    this(
+        clientId,
+        // The resource never changes, so the values the rules match are only computed once.
+        ResourceValues.create(resource),
+        clock,
+        fallbackSampler,
+        Arrays.stream(sortedRules)
+            .map(rule -> new SamplingRuleApplier(clientId, rule, clock))
+            .toArray(SamplingRuleApplier[]::new),
+        SamplingRuleIndex.create(Arrays.asList(sortedRules)),
+        ruleMatchCacheSize > 0 && Arrays.stream(sortedRules).allMatch(RuleMatchCache::supports)
+            ? new RuleMatchCache(ruleMatchCacheSize, metrics)
+            : null);
+  }
+
+  private XrayRulesSampler(
+      String clientId,
+      ResourceValues resourceValues,
+      Clock clock,
+      Sampler fallbackSampler,
+      SamplingRuleApplier[] ruleAppliers,
+      SamplingRuleIndex ruleIndex,
+      @Nullable RuleMatchCache ruleMatchCache) {
     this.clientId = clientId;
-    this.resource = resource;
+    this.resourceValues = resourceValues;
     this.clock = clock;
     this.fallbackSampler = fallbackSampler;
     this.ruleAppliers = ruleAppliers;
+    this.ruleIndex = ruleIndex;
+    this.ruleMatchCache = ruleMatchCache;
   }
 
   @Override
@@ -75,11 +119,20 @@ final class XrayRulesSampler implements Sampler {
       SpanKind spanKind,
       Attributes attributes,
       List<LinkData> parentLinks) {
-    for (SamplingRuleApplier applier : ruleAppliers) {
-      if (applier.matches(name, attributes, resource)) {
-        return applier.shouldSample(
-            parentContext, traceId, name, spanKind, attributes, parentLinks);
+    int position;
+    RuleMatchCache ruleMatchCache = this.ruleMatchCache;
+    if (ruleMatchCache != null) {
+      position = ruleMatchCache.get(name, attributes);
+      if (position == RuleMatchCache.ABSENT) {
+        position = ruleIndex.firstMatch(ruleAppliers, name, attributes, resourceValues);
+        ruleMatchCache.put(name, attributes, position);
       }
+    } else {
+      position = ruleIndex.firstMatch(ruleAppliers, name, attributes, resourceValues);
+    }
+    if (position >= 0) {
+      return ruleAppliers[position].shouldSample(
+          parentContext, traceId, name, spanKind, attributes, parentLinks);
     }
 
     // In practice, X-Ray always returns a Default rule that matches all requests so it is a bug in
@@ -136,6 +189,8 @@ final class XrayRulesSampler implements Sampler {
                   return rule;
                 })
             .toArray(SamplingRuleApplier[]::new);
-    return new XrayRulesSampler(clientId, resource, clock, fallbackSampler, newAppliers);
+    // The rules and their order are unchanged, so the index and the cache still apply.
+    return new XrayRulesSampler(
+        clientId, resourceValues, clock, fallbackSampler, newAppliers, ruleIndex, ruleMatchCache);
   }
 }
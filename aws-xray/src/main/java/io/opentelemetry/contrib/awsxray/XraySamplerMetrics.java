@@ -0,0 +1,51 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.awsxray;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.MeterProvider;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics describing the selection of sampling rules by {@link AwsXrayRemoteSampler}. The counts
+ * are recorded in {@link LongAdder}s on the sampling path and reported by asynchronous instruments
+ * when the metrics are collected.
+ */
+final class XraySamplerMetrics {
+  private static final String INSTRUMENTATION_NAME = "io.opentelemetry.contrib.awsxray";
+  private static final AttributeKey<String> RESULT = AttributeKey.stringKey("result");
+  private static final Attributes HIT = Attributes.of(RESULT, "hit");
+  private static final Attributes MISS = Attributes.of(RESULT, "miss");
+
+  static final XraySamplerMetrics NOOP = new XraySamplerMetrics(MeterProvider.noop());
+
+  private final LongAdder ruleMatchCacheHits = new LongAdder();
+  private final LongAdder ruleMatchCacheMisses = new LongAdder();
+
+  XraySamplerMetrics(MeterProvider meterProvider) {
+    meterProvider
+        .get(INSTRUMENTATION_NAME)
+        .counterBuilder("xray.sampler.rule_match_cache.lookups")
+        .setDescription(
+            "The number of lookups of the sampling rule matching a span in the rule match"
+                + " cache, by result")
+        .setUnit("1")
+        .buildWithCallback(
+            measurement -> {
+              measurement.observe(ruleMatchCacheHits.sum(), HIT);
+              measurement.observe(ruleMatchCacheMisses.sum(), MISS);
+            });
+  }
+
+  void recordRuleMatchCacheHit() {
+    ruleMatchCacheHits.increment();
+  }
+
+  void recordRuleMatchCacheMiss() {
+    ruleMatchCacheMisses.increment();
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.awsxray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class GlobPatternTest {
+
+  @Test
+  void literal() {
+    assertThat(GlobPattern.compile("foo").matches("foo")).isTrue();
+    assertThat(GlobPattern.compile("foo").matches("FoO")).isTrue();
+    assertThat(GlobPattern.compile("foo").matches("fo")).isFalse();
+    assertThat(GlobPattern.compile("foo").matches("fooo")).isFalse();
+    assertThat(GlobPattern.compile("").matches("")).isTrue();
+    assertThat(GlobPattern.compile("").matches("a")).isFalse();
+  }
+
+  @Test
+  void questionMark() {
+    assertThat(GlobPattern.compile("f?o").matches("foo")).isTrue();
+    assertThat(GlobPattern.compile("f?o").matches("f?o")).isTrue();
+    assertThat(GlobPattern.compile("f?o").matches("fo")).isFalse();
+    assertThat(GlobPattern.compile("??").matches("ab")).isTrue();
+    assertThat(GlobPattern.compile("??").matches("abc")).isFalse();
+  }
+
+  @Test
+  void star() {
+    assertThat(GlobPattern.compile("*").matches("")).isTrue();
+    assertThat(GlobPattern.compile("*").matches("anything")).isTrue();
+    assertThat(GlobPattern.compile("foo*").matches("foo")).isTrue();
+    assertThat(GlobPattern.compile("foo*").matches("FOObar")).isTrue();
+    assertThat(GlobPattern.compile("*bar").matches("foobar")).isTrue();
+    assertThat(GlobPattern.compile("*bar").matches("foobarbaz")).isFalse();
+    assertThat(GlobPattern.compile("*foo*bar*").matches("xxfooyybarzz")).isTrue();
+    assertThat(GlobPattern.compile("*foo*bar*").matches("xxbaryyfoozz")).isFalse();
+    assertThat(GlobPattern.compile("a*b?c").matches("aXbbYc")).isTrue();
+    assertThat(GlobPattern.compile("**GET**").matches("BADGETGOOD")).isTrue();
+  }
+
+  @Test
+  void segmentsResumeAfterPartialMatch() {
+    assertThat(GlobPattern.compile("*aab*").matches("aaab")).isTrue();
+    assertThat(GlobPattern.compile("x*abab*y").matches("xabaababy")).isTrue();
+    assertThat(GlobPattern.compile("x*abab*y").matches("xabaabay")).isFalse();
+    assertThat(GlobPattern.compile("*aab*b").matches("aaab")).isFalse();
+    assertThat(GlobPattern.compile("a*a").matches("a")).isFalse();
+    assertThat(GlobPattern.compile("a*?b*c").matches("aXbc")).isTrue();
+  }
+
+  @Test
+  void linearInLongStrings() {
+    StringBuilder s = new StringBuilder();
+    for (int i = 0; i < 1_000_000; i++) {
+      s.append('a');
+    }
+    String pattern = "*aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaab*";
+    assertThat(GlobPattern.compile(pattern).matches(s.toString())).isFalse();
+    assertThat(GlobPattern.compile(pattern).matches(s.append('b').toString())).isTrue();
+  }
+
+  @Test
+  void sameAsCaseInsensitiveRegex() {
+    List<String> patterns =
+        Arrays.asList("*", "a*", "*a", "a?c*", "*ab*ab*", "?*?", "*op*t?lem*r?.io*", "A*b*C");
+    List<String> strings =
+        Arrays.asList(
+            "", "a", "abc", "ABC", "abab", "xabyab", "abxab", "opentelemetry.io", "aXbYc", "cba");
+    for (String pattern : patterns) {
+      Pattern regex = Pattern.compile(toRegex(pattern), Pattern.CASE_INSENSITIVE);
+      for (String s : strings) {
+        assertThat(GlobPattern.compile(pattern).matches(s))
+            .as("%s matches %s", pattern, s)
+            .isEqualTo(regex.matcher(s).matches());
+      }
+    }
+  }
+
+  private static String toRegex(String glob) {
+    StringBuilder regex = new StringBuilder();
+    for (char c : glob.toCharArray()) {
+      if (c == '*') {
+        regex.append(".*");
+      } else if (c == '?') {
+        regex.append('.');
+      } else {
+        regex.append(Pattern.quote(String.valueOf(c)));
+      }
+    }
+    return regex.toString();
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.awsxray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.semconv.trace.attributes.SemanticAttributes;
+import org.junit.jupiter.api.Test;
+
+class RuleMatchCacheTest {
+
+  private static final AttributeKey<String> RESULT = AttributeKey.stringKey("result");
+
+  @Test
+  void cachesPositions() {
+    SdkMeterProvider meterProvider = SdkMeterProvider.builder().build();
+    RuleMatchCache cache = new RuleMatchCache(10, new XraySamplerMetrics(meterProvider));
+
+    assertThat(cache.get("cat-service", http("GET", "/cats"))).isEqualTo(RuleMatchCache.ABSENT);
+    cache.put("cat-service", http("GET", "/cats"), 1);
+    cache.put("cat-service", http("POST", "/cats"), -1);
+
+    assertThat(cache.get("cat-service", http("GET", "/cats"))).isEqualTo(1);
+    assertThat(cache.get("cat-service", http("POST", "/cats"))).isEqualTo(-1);
+    assertThat(cache.get("dog-service", http("GET", "/cats"))).isEqualTo(RuleMatchCache.ABSENT);
+    assertThat(cache.get("cat-service", Attributes.empty())).isEqualTo(RuleMatchCache.ABSENT);
+
+    assertThat(lookups(meterProvider, "hit")).isEqualTo(2);
+    assertThat(lookups(meterProvider, "miss")).isEqualTo(3);
+  }
+
+  @Test
+  void evictsUnreferencedEntries() {
+    RuleMatchCache cache = new RuleMatchCache(2, XraySamplerMetrics.NOOP);
+    cache.put("cat-service", Attributes.empty(), 0);
+    cache.put("dog-service", Attributes.empty(), 1);
+
+    // Only cat was used since it was added, so dog is evicted.
+    assertThat(cache.get("cat-service", Attributes.empty())).isEqualTo(0);
+    cache.put("bat-service", Attributes.empty(), 2);
+    assertThat(cache.get("dog-service", Attributes.empty())).isEqualTo(RuleMatchCache.ABSENT);
+    assertThat(cache.get("bat-service", Attributes.empty())).isEqualTo(2);
+
+    // The sweep cleared the referenced bit of cat, so it is evicted before bat, used again.
+    assertThat(cache.get("bat-service", Attributes.empty())).isEqualTo(2);
+    cache.put("cow-service", Attributes.empty(), 3);
+    assertThat(cache.get("cat-service", Attributes.empty())).isEqualTo(RuleMatchCache.ABSENT);
+    assertThat(cache.get("bat-service", Attributes.empty())).isEqualTo(2);
+    assertThat(cache.get("cow-service", Attributes.empty())).isEqualTo(3);
+  }
+
+  @Test
+  void keepsEntriesReachableAcrossEvictions() {
+    int capacity = 8;
+    RuleMatchCache cache = new RuleMatchCache(capacity, XraySamplerMetrics.NOOP);
+    for (int i = 0; i < 1000; i++) {
+      cache.put("service", http("GET", "/items/" + i), i);
+      // Every entry still in the cache is found at its position, whatever the evictions moved.
+      int found = 0;
+      for (int j = 0; j <= i; j++) {
+        int position = cache.get("service", http("GET", "/items/" + j));
+        if (position != RuleMatchCache.ABSENT) {
+          assertThat(position).isEqualTo(j);
+          found++;
+        }
+      }
+      assertThat(found).isEqualTo(Math.min(i + 1, capacity));
+    }
+  }
+
+  private static Attributes http(String method, String target) {
+    return Attributes.of(
+        SemanticAttributes.HTTP_METHOD, method, SemanticAttributes.HTTP_TARGET, target);
+  }
+
+  private static long lookups(SdkMeterProvider meterProvider, String result) {
+    for (MetricData metric : meterProvider.collectAllMetrics()) {
+      if (metric.getName().equals("xray.sampler.rule_match_cache.lookups")) {
+        return metric.getLongSumData().getPoints().stream()
+            .filter(point -> result.equals(point.getAttributes().get(RESULT)))
+            .mapToLong(LongPointData::getValue)
+            .sum();
+      }
+    }
+    return 0;
+  }
+}
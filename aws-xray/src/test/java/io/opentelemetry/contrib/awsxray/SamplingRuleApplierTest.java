@@ -16,6 +16,7 @@ import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.api.trace.TraceId;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.contrib.awsxray.GetSamplingTargetsResponse.SamplingTargetDocument;
+import io.opentelemetry.contrib.awsxray.SamplingRuleApplier.ResourceValues;
 import io.opentelemetry.sdk.common.Clock;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.testing.time.TestClock;
@@ -101,24 +102,30 @@ class SamplingRuleApplierTest {
 
     @Test
     void matches() {
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
     }
 
     @Test
     void nameNotMatch() {
-      assertThat(applier.matches("test-service-foo-baz", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-baz", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
 
     @Test
     void nullNotMatch() {
-      assertThat(applier.matches(null, attributes, resource)).isFalse();
+      assertThat(applier.matches(null, attributes, ResourceValues.create(resource))).isFalse();
     }
 
     @Test
     void methodNotMatch() {
       Attributes attributes =
           this.attributes.toBuilder().put(SemanticAttributes.HTTP_METHOD, "POST").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
 
     @Test
@@ -127,7 +134,9 @@ class SamplingRuleApplierTest {
       // wildcard.
       Attributes attributes =
           this.attributes.toBuilder().put(SemanticAttributes.HTTP_HOST, "opentelemetryfio").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
 
     @Test
@@ -136,20 +145,26 @@ class SamplingRuleApplierTest {
           this.attributes.toBuilder()
               .put(SemanticAttributes.HTTP_TARGET, "/instrument-you")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
 
     @Test
     void attributeNotMatch() {
       Attributes attributes =
           this.attributes.toBuilder().put(AttributeKey.stringKey("animal"), "dog").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
 
     @Test
     void attributeMissing() {
       Attributes attributes = removeAttribute(this.attributes, AttributeKey.stringKey("animal"));
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
 
     @Test
@@ -159,11 +174,15 @@ class SamplingRuleApplierTest {
               .put(
                   ResourceAttributes.CLOUD_PLATFORM, ResourceAttributes.CloudPlatformValues.AWS_EC2)
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
       resource =
           Resource.create(
               removeAttribute(this.resource.getAttributes(), ResourceAttributes.CLOUD_PLATFORM));
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
 
     @Test
@@ -174,7 +193,9 @@ class SamplingRuleApplierTest {
                   ResourceAttributes.AWS_ECS_CONTAINER_ARN,
                   "arn:aws:xray:us-east-1:595986152929:my-service2")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
   }
 
@@ -237,38 +258,62 @@ class SamplingRuleApplierTest {
 
     @Test
     void nameMatches() {
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
-      assertThat(applier.matches("test-service-foo-baz", attributes, resource)).isTrue();
-      assertThat(applier.matches("test-service-foo-", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
+      assertThat(
+              applier.matches("test-service-foo-baz", attributes, ResourceValues.create(resource)))
+          .isTrue();
+      assertThat(
+              applier.matches("test-service-foo-", attributes, ResourceValues.create(resource)))
+          .isTrue();
+      // Patterns match ignoring case, like literals.
+      assertThat(
+              applier.matches("TEST-Service-Foo-Bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
     }
 
     @Test
     void nameNotMatch() {
-      assertThat(applier.matches("test-service-foo", attributes, resource)).isFalse();
-      assertThat(applier.matches("prod-service-foo-bar", attributes, resource)).isFalse();
-      assertThat(applier.matches(null, attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo", attributes, ResourceValues.create(resource)))
+          .isFalse();
+      assertThat(
+              applier.matches("prod-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
+      assertThat(applier.matches(null, attributes, ResourceValues.create(resource))).isFalse();
     }
 
     @Test
     void methodMatches() {
       Attributes attributes =
           this.attributes.toBuilder().put(SemanticAttributes.HTTP_METHOD, "BADGETGOOD").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
       attributes =
           this.attributes.toBuilder().put(SemanticAttributes.HTTP_METHOD, "BADGET").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
       attributes =
           this.attributes.toBuilder().put(SemanticAttributes.HTTP_METHOD, "GETGET").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
     }
 
     @Test
     void methodNotMatch() {
       Attributes attributes =
           this.attributes.toBuilder().put(SemanticAttributes.HTTP_METHOD, "POST").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
       attributes = removeAttribute(this.attributes, SemanticAttributes.HTTP_METHOD);
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
 
     @Test
@@ -277,40 +322,58 @@ class SamplingRuleApplierTest {
           this.attributes.toBuilder()
               .put(SemanticAttributes.HTTP_HOST, "alpha.opentelemetry.io")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
       attributes =
           this.attributes.toBuilder()
               .put(SemanticAttributes.HTTP_HOST, "opfdnqtelemetry.io")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
       attributes =
           this.attributes.toBuilder().put(SemanticAttributes.HTTP_HOST, "opentglemetry.io").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
       attributes =
           this.attributes.toBuilder().put(SemanticAttributes.HTTP_HOST, "opentglemry.io").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
       attributes =
           this.attributes.toBuilder().put(SemanticAttributes.HTTP_HOST, "opentglemrz.io").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
     }
 
     @Test
     void hostNotMatch() {
       Attributes attributes =
           this.attributes.toBuilder().put(SemanticAttributes.HTTP_HOST, "opentelemetryfio").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
       attributes =
           this.attributes.toBuilder()
               .put(SemanticAttributes.HTTP_HOST, "opentgalemetry.io")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
       attributes =
           this.attributes.toBuilder()
               .put(SemanticAttributes.HTTP_HOST, "alpha.oentelemetry.io")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
       attributes = removeAttribute(this.attributes, SemanticAttributes.HTTP_HOST);
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
 
     @Test
@@ -319,13 +382,17 @@ class SamplingRuleApplierTest {
           this.attributes.toBuilder()
               .put(SemanticAttributes.HTTP_TARGET, "/instrument-me?foo=bar&cat=")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
       // Deceptive question mark, it's actually a wildcard :-)
       attributes =
           this.attributes.toBuilder()
               .put(SemanticAttributes.HTTP_TARGET, "/instrument-meafoo=bar&cat=")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
     }
 
     @Test
@@ -334,41 +401,59 @@ class SamplingRuleApplierTest {
           this.attributes.toBuilder()
               .put(SemanticAttributes.HTTP_TARGET, "/instrument-mea?foo=bar&cat=")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
       attributes =
           this.attributes.toBuilder()
               .put(SemanticAttributes.HTTP_TARGET, "foo/instrument-meafoo=bar&cat=")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
       attributes = removeAttribute(this.attributes, SemanticAttributes.HTTP_TARGET);
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
 
     @Test
     void attributeMatches() {
       Attributes attributes =
           this.attributes.toBuilder().put(AttributeKey.stringKey("animal"), "catman").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
       attributes = this.attributes.toBuilder().put(AttributeKey.longKey("speed"), 20).build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
     }
 
     @Test
     void attributeNotMatch() {
       Attributes attributes =
           this.attributes.toBuilder().put(AttributeKey.stringKey("animal"), "dog").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
       attributes =
           this.attributes.toBuilder().put(AttributeKey.stringKey("animal"), "mancat").build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
       attributes = this.attributes.toBuilder().put(AttributeKey.longKey("speed"), 21).build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
 
     @Test
     void attributeMissing() {
       Attributes attributes = removeAttribute(this.attributes, AttributeKey.stringKey("animal"));
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
 
     @Test
@@ -378,12 +463,16 @@ class SamplingRuleApplierTest {
               .put(
                   ResourceAttributes.CLOUD_PLATFORM, ResourceAttributes.CloudPlatformValues.AWS_EC2)
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
       resource =
           Resource.create(
               removeAttribute(this.resource.getAttributes(), ResourceAttributes.CLOUD_PLATFORM));
       // null matches for pattern '*'
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
     }
 
     @Test
@@ -394,7 +483,9 @@ class SamplingRuleApplierTest {
                   ResourceAttributes.AWS_ECS_CONTAINER_ARN,
                   "arn:aws:opentelemetry:us-east-3:52929:my-service")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
     }
 
     @Test
@@ -405,19 +496,25 @@ class SamplingRuleApplierTest {
                   ResourceAttributes.AWS_ECS_CONTAINER_ARN,
                   "arn:aws:xray:us-east-1:595986152929:my-service2")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
       resource =
           this.resource.toBuilder()
               .put(
                   ResourceAttributes.AWS_ECS_CONTAINER_ARN,
                   "frn:aws:xray:us-east-1:595986152929:my-service")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
       resource =
           Resource.create(
               removeAttribute(
                   this.resource.getAttributes(), ResourceAttributes.AWS_ECS_CONTAINER_ARN));
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
   }
 
@@ -448,7 +545,9 @@ class SamplingRuleApplierTest {
 
     @Test
     void resourceFaasIdMatches() {
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
     }
 
     @Test
@@ -460,7 +559,9 @@ class SamplingRuleApplierTest {
           this.attributes.toBuilder()
               .put(ResourceAttributes.FAAS_ID, "arn:aws:xray:us-east-1:595986152929:my-service")
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isTrue();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isTrue();
     }
 
     @Test
@@ -471,11 +572,15 @@ class SamplingRuleApplierTest {
                   ResourceAttributes.CLOUD_PLATFORM,
                   ResourceAttributes.CloudPlatformValues.GCP_CLOUD_FUNCTIONS)
               .build();
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
       resource =
           Resource.create(
               removeAttribute(this.resource.getAttributes(), ResourceAttributes.CLOUD_PLATFORM));
-      assertThat(applier.matches("test-service-foo-bar", attributes, resource)).isFalse();
+      assertThat(
+              applier.matches("test-service-foo-bar", attributes, ResourceValues.create(resource)))
+          .isFalse();
     }
   }
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.awsxray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.contrib.awsxray.GetSamplingRulesResponse.SamplingRule;
+import io.opentelemetry.contrib.awsxray.SamplingRuleApplier.ResourceValues;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.semconv.trace.attributes.SemanticAttributes;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class SamplingRuleIndexTest {
+
+  private static final List<SamplingRule> RULES =
+      Arrays.asList(
+          rule("cat-service", "*", "*", "*", Collections.emptyMap()),
+          rule("*", "Example.com", "*", "*", Collections.emptyMap()),
+          rule("*", "*", "GET", "/api/*", Collections.emptyMap()),
+          rule("*", "*", "*", "/API/users", Collections.emptyMap()),
+          rule("*", "*", "POST", "*", Collections.emptyMap()),
+          rule("*-service", "*", "*", "/api?other*", Collections.emptyMap()),
+          rule("*", "*.example.com", "PUT", "*", Collections.emptyMap()),
+          rule("*", "*", "*", "*", Collections.singletonMap("animal", "cat")),
+          rule("dog-*", "*", "*", "/*", Collections.emptyMap()));
+
+  private static final List<String> NAMES = Arrays.asList("cat-service", "DOG-service", "other");
+  private static final List<String> HOSTS =
+      Arrays.asList(null, "example.com", "EXAMPLE.COM", "api.example.com");
+  private static final List<String> METHODS = Arrays.asList(null, "GET", "post", "PUT");
+  private static final List<String> TARGETS =
+      Arrays.asList(null, "", "/api/users", "/Api/Users", "/api/other", "/api", "/other");
+  private static final List<String> ANIMALS = Arrays.asList(null, "cat", "dog");
+
+  @Test
+  void sameMatchAsLinearScan() {
+    SamplingRuleApplier[] appliers =
+        RULES.stream()
+            .map(rule -> new SamplingRuleApplier("test-client-id", rule, Clock.getDefault()))
+            .toArray(SamplingRuleApplier[]::new);
+    SamplingRuleIndex index = SamplingRuleIndex.create(RULES);
+    ResourceValues resourceValues = ResourceValues.create(Resource.empty());
+
+    int matched = 0;
+    int unmatched = 0;
+    for (String name : NAMES) {
+      for (String host : HOSTS) {
+        for (String method : METHODS) {
+          for (String target : TARGETS) {
+            for (String animal : ANIMALS) {
+              Attributes attributes = attributes(host, method, target, animal);
+              int expected = -1;
+              for (int i = 0; i < appliers.length; i++) {
+                if (appliers[i].matches(name, attributes, resourceValues)) {
+                  expected = i;
+                  break;
+                }
+              }
+              assertThat(index.firstMatch(appliers, name, attributes, resourceValues))
+                  .as("%s %s", name, attributes)
+                  .isEqualTo(expected);
+              if (expected >= 0) {
+                matched++;
+              } else {
+                unmatched++;
+              }
+            }
+          }
+        }
+      }
+    }
+    // Both spans matching some rule and spans matching none were covered.
+    assertThat(matched).isPositive();
+    assertThat(unmatched).isPositive();
+  }
+
+  @Test
+  void noRules() {
+    SamplingRuleIndex index = SamplingRuleIndex.create(Collections.emptyList());
+    assertThat(
+            index.firstMatch(
+                new SamplingRuleApplier[0],
+                "cat-service",
+                Attributes.empty(),
+                ResourceValues.create(Resource.empty())))
+        .isEqualTo(-1);
+  }
+
+  private static Attributes attributes(String host, String method, String target, String animal) {
+    AttributesBuilder attributes = Attributes.builder();
+    if (host != null) {
+      attributes.put(SemanticAttributes.HTTP_HOST, host);
+    }
+    if (method != null) {
+      attributes.put(SemanticAttributes.HTTP_METHOD, method);
+    }
+    if (target != null) {
+      attributes.put(SemanticAttributes.HTTP_TARGET, target);
+    }
+    if (animal != null) {
+      attributes.put(AttributeKey.stringKey("animal"), animal);
+    }
+    return attributes.build();
+  }
+
+  private static SamplingRule rule(
+      String serviceName,
+      String host,
+      String httpMethod,
+      String urlPath,
+      Map<String, String> attributes) {
+    return SamplingRule.create(
+        attributes,
+        1.0,
+        host,
+        httpMethod,
+        1,
+        1,
+        "*",
+        "*",
+        serviceName + "-rule",
+        serviceName,
+        "*",
+        urlPath,
+        1);
+  }
+}
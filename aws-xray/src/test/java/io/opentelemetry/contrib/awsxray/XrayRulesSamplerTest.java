@@ -13,6 +13,9 @@ import io.opentelemetry.api.trace.TraceId;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.contrib.awsxray.GetSamplingRulesResponse.SamplingRule;
 import io.opentelemetry.contrib.awsxray.GetSamplingTargetsResponse.SamplingTargetDocument;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.testing.time.TestClock;
 import io.opentelemetry.sdk.trace.samplers.Sampler;
@@ -168,6 +171,99 @@ class XrayRulesSamplerTest {
     assertThat(sampler.snapshot(Date.from(now))).hasSize(4);
   }
 
+  @Test
+  void ruleMatchCache() {
+    SamplingRule catRule =
+        SamplingRule.create(
+            Collections.emptyMap(),
+            1.0,
+            "*",
+            "*",
+            1,
+            0,
+            "*",
+            "*",
+            "cat-rule",
+            "cat-service",
+            "*",
+            "*",
+            1);
+    SamplingRule defaultRule =
+        SamplingRule.create(
+            Collections.emptyMap(),
+            0.0,
+            "*",
+            "*",
+            2,
+            0,
+            "*",
+            "*",
+            "default-rule",
+            "*",
+            "*",
+            "*",
+            1);
+    SamplingRule dogRule =
+        SamplingRule.create(
+            Collections.singletonMap("animal", "dog"),
+            1.0,
+            "*",
+            "*",
+            0,
+            0,
+            "*",
+            "*",
+            "dog-rule",
+            "*",
+            "*",
+            "*",
+            1);
+
+    SdkMeterProvider meterProvider = SdkMeterProvider.builder().build();
+    XraySamplerMetrics metrics = new XraySamplerMetrics(meterProvider);
+    XrayRulesSampler sampler =
+        new XrayRulesSampler(
+            "CLIENT_ID",
+            Resource.getDefault(),
+            TestClock.create(),
+            Sampler.alwaysOn(),
+            Arrays.asList(catRule, defaultRule),
+            10,
+            metrics);
+    for (int i = 0; i < 3; i++) {
+      assertThat(doSample(sampler, "cat-service"))
+          .isEqualTo(SamplingResult.create(SamplingDecision.RECORD_AND_SAMPLE));
+      assertThat(doSample(sampler, "dog-service"))
+          .isEqualTo(SamplingResult.create(SamplingDecision.DROP));
+    }
+    assertThat(cacheLookups(meterProvider)).isEqualTo(6);
+
+    // The cache would ignore the attributes the dog rule matches, so it is not used.
+    sampler =
+        new XrayRulesSampler(
+            "CLIENT_ID",
+            Resource.getDefault(),
+            TestClock.create(),
+            Sampler.alwaysOn(),
+            Arrays.asList(catRule, defaultRule, dogRule),
+            10,
+            metrics);
+    assertThat(doSample(sampler, "cat-service"))
+        .isEqualTo(SamplingResult.create(SamplingDecision.RECORD_AND_SAMPLE));
+    assertThat(cacheLookups(meterProvider)).isEqualTo(6);
+  }
+
+  private static long cacheLookups(SdkMeterProvider meterProvider) {
+    for (MetricData metric : meterProvider.collectAllMetrics()) {
+      if (metric.getName().equals("xray.sampler.rule_match_cache.lookups")) {
+        return metric.getLongSumData().getPoints().stream()
+            .mapToLong(LongPointData::getValue)
+            .sum();
+      }
+    }
+    return 0;
+  }
+
   private SamplingResult doSample(Sampler sampler, String name) {
     return sampler.shouldSample(
         Context.current(),
@@ -1,6 +1,8 @@
 plugins {
   id("otel.java-conventions")
   id("otel.publish-conventions")
+
+  id("me.champeau.jmh")
 }
 
 description = "OpenTelemetry Disruptor Processor"
@@ -8,8 +10,12 @@ description = "OpenTelemetry Disruptor Processor"
 dependencies {
   api("io.opentelemetry:opentelemetry-api")
   api("io.opentelemetry:opentelemetry-sdk")
+  api("io.opentelemetry:opentelemetry-api-metrics")
+  api("io.opentelemetry:opentelemetry-sdk-extension-logging")
 
   compileOnly("org.checkerframework:checker-qual")
 
   implementation("com.lmax:disruptor:3.4.4")
+
+  testImplementation("io.opentelemetry:opentelemetry-sdk-metrics")
 }
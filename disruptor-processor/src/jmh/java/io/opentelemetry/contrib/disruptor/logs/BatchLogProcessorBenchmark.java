@@ -0,0 +1,95 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.logs;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logging.LogProcessor;
+import io.opentelemetry.sdk.logging.data.LogRecord;
+import io.opentelemetry.sdk.logging.export.BatchLogProcessor;
+import io.opentelemetry.sdk.logging.export.LogExporter;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the workloads of {@link DisruptorLogProcessorBenchmark} against the SDK's {@link
+ * BatchLogProcessor}, as a baseline. The queue size takes the values of the Disruptor buffer size.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchLogProcessorBenchmark {
+
+  @Param({"1024", "8192", "65536"})
+  public int maxQueueSize;
+
+  private LogProcessor batchLogProcessor;
+  private LogRecord logRecord;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    batchLogProcessor =
+        BatchLogProcessor.builder(new NoopLogExporter()).setMaxQueueSize(maxQueueSize).build();
+    logRecord = LogRecord.builder().setBody("log").build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    batchLogProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void addLogRecord_01Thread() {
+    batchLogProcessor.addLogRecord(logRecord);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void addLogRecord_04Threads() {
+    batchLogProcessor.addLogRecord(logRecord);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void addLogRecord_16Threads() {
+    batchLogProcessor.addLogRecord(logRecord);
+  }
+
+  @Benchmark
+  @Threads(64)
+  public void addLogRecord_64Threads() {
+    batchLogProcessor.addLogRecord(logRecord);
+  }
+
+  private static final class NoopLogExporter implements LogExporter {
+    @Override
+    public CompletableResultCode export(Collection<LogRecord> records) {
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      return CompletableResultCode.ofSuccess();
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.logs;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import io.opentelemetry.sdk.logging.data.LogRecord;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput and latency of {@code addLogRecord} for every combination of wait
+ * strategy, blocking mode and buffer size. {@link BatchLogProcessorBenchmark} runs the same
+ * workloads against the SDK's {@code BatchLogProcessor}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DisruptorLogProcessorBenchmark {
+
+  @Param({"sleeping", "yielding", "busySpin", "blocking"})
+  public String waitStrategy;
+
+  @Param({"true", "false"})
+  public boolean blocking;
+
+  @Param({"1024", "8192", "65536"})
+  public int bufferSize;
+
+  private DisruptorLogProcessor disruptorLogProcessor;
+  private LogRecord logRecord;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    disruptorLogProcessor =
+        DisruptorLogProcessor.builder(new NoopLogProcessor())
+            .setWaitingStrategy(newWaitStrategy(waitStrategy))
+            .setBlocking(blocking)
+            .setBufferSize(bufferSize)
+            .build();
+    logRecord = LogRecord.builder().setBody("log").build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    disruptorLogProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void addLogRecord_01Thread() {
+    disruptorLogProcessor.addLogRecord(logRecord);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void addLogRecord_04Threads() {
+    disruptorLogProcessor.addLogRecord(logRecord);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void addLogRecord_16Threads() {
+    disruptorLogProcessor.addLogRecord(logRecord);
+  }
+
+  @Benchmark
+  @Threads(64)
+  public void addLogRecord_64Threads() {
+    disruptorLogProcessor.addLogRecord(logRecord);
+  }
+
+  private static WaitStrategy newWaitStrategy(String name) {
+    switch (name) {
+      case "sleeping":
+        return new SleepingWaitStrategy(0, 1000 * 1000L);
+      case "yielding":
+        return new YieldingWaitStrategy();
+      case "busySpin":
+        return new BusySpinWaitStrategy();
+      case "blocking":
+        return new BlockingWaitStrategy();
+      default:
+        throw new IllegalArgumentException("Unknown wait strategy: " + name);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the workloads of {@link DisruptorSpanProcessorBenchmark} against the SDK's {@link
+ * BatchSpanProcessor}, as a baseline. The queue size takes the values of the Disruptor buffer
+ * size.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchSpanProcessorBenchmark {
+
+  @Param({"1024", "8192", "65536"})
+  public int maxQueueSize;
+
+  private SdkTracerProvider tracerProvider;
+  private SpanProcessor batchSpanProcessor;
+  private ReadWriteSpan span;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    batchSpanProcessor =
+        BatchSpanProcessor.builder(new NoopSpanExporter()).setMaxQueueSize(maxQueueSize).build();
+    tracerProvider = SdkTracerProvider.builder().build();
+    span = (ReadWriteSpan) tracerProvider.get("benchmark").spanBuilder("span").startSpan();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    batchSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+    tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void onStart_01Thread() {
+    batchSpanProcessor.onStart(Context.root(), span);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void onStart_04Threads() {
+    batchSpanProcessor.onStart(Context.root(), span);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void onStart_16Threads() {
+    batchSpanProcessor.onStart(Context.root(), span);
+  }
+
+  @Benchmark
+  @Threads(64)
+  public void onStart_64Threads() {
+    batchSpanProcessor.onStart(Context.root(), span);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void onEnd_01Thread() {
+    batchSpanProcessor.onEnd(span);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void onEnd_04Threads() {
+    batchSpanProcessor.onEnd(span);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void onEnd_16Threads() {
+    batchSpanProcessor.onEnd(span);
+  }
+
+  @Benchmark
+  @Threads(64)
+  public void onEnd_64Threads() {
+    batchSpanProcessor.onEnd(span);
+  }
+
+  private static final class NoopSpanExporter implements SpanExporter {
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      return CompletableResultCode.ofSuccess();
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput and latency of {@code onStart} and {@code onEnd} for every combination of
+ * wait strategy, blocking mode and buffer size. {@link BatchSpanProcessorBenchmark} runs the same
+ * workloads against the SDK's {@code BatchSpanProcessor}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DisruptorSpanProcessorBenchmark {
+
+  @Param({"sleeping", "yielding", "busySpin", "blocking"})
+  public String waitStrategy;
+
+  @Param({"true", "false"})
+  public boolean blocking;
+
+  @Param({"1024", "8192", "65536"})
+  public int bufferSize;
+
+  private SdkTracerProvider tracerProvider;
+  private DisruptorSpanProcessor disruptorSpanProcessor;
+  private ReadWriteSpan span;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(new NoopSpanProcessor())
+            .setWaitingStrategy(newWaitStrategy(waitStrategy))
+            .setBlocking(blocking)
+            .setBufferSize(bufferSize)
+            .build();
+    tracerProvider = SdkTracerProvider.builder().build();
+    span = (ReadWriteSpan) tracerProvider.get("benchmark").spanBuilder("span").startSpan();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+    tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void onStart_01Thread() {
+    disruptorSpanProcessor.onStart(Context.root(), span);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void onStart_04Threads() {
+    disruptorSpanProcessor.onStart(Context.root(), span);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void onStart_16Threads() {
+    disruptorSpanProcessor.onStart(Context.root(), span);
+  }
+
+  @Benchmark
+  @Threads(64)
+  public void onStart_64Threads() {
+    disruptorSpanProcessor.onStart(Context.root(), span);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void onEnd_01Thread() {
+    disruptorSpanProcessor.onEnd(span);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void onEnd_04Threads() {
+    disruptorSpanProcessor.onEnd(span);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void onEnd_16Threads() {
+    disruptorSpanProcessor.onEnd(span);
+  }
+
+  @Benchmark
+  @Threads(64)
+  public void onEnd_64Threads() {
+    disruptorSpanProcessor.onEnd(span);
+  }
+
+  private static WaitStrategy newWaitStrategy(String name) {
+    switch (name) {
+      case "sleeping":
+        return new SleepingWaitStrategy(0, 1000 * 1000L);
+      case "yielding":
+        return new YieldingWaitStrategy();
+      case "busySpin":
+        return new BusySpinWaitStrategy();
+      case "blocking":
+        return new BlockingWaitStrategy();
+      default:
+        throw new IllegalArgumentException("Unknown wait strategy: " + name);
+    }
+  }
+}
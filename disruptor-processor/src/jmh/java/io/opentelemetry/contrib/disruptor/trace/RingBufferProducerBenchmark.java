@@ -0,0 +1,85 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the latency of {@code onEnd} when all the threads share one multi-producer ring buffer
+ * with the latency when every thread publishes on its own single-producer ring buffer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RingBufferProducerBenchmark {
+
+  @Param({"false", "true"})
+  public boolean perThreadRingBuffers;
+
+  private SdkTracerProvider tracerProvider;
+  private DisruptorSpanProcessor disruptorSpanProcessor;
+  private ReadableSpan span;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(new NoopSpanProcessor())
+            .setBufferSize(1024)
+            .setPerThreadRingBuffers(perThreadRingBuffers)
+            .build();
+    tracerProvider = SdkTracerProvider.builder().build();
+    span = (ReadableSpan) tracerProvider.get("benchmark").spanBuilder("span").startSpan();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+    tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void onEnd_01Thread() {
+    disruptorSpanProcessor.onEnd(span);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void onEnd_04Threads() {
+    disruptorSpanProcessor.onEnd(span);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void onEnd_16Threads() {
+    disruptorSpanProcessor.onEnd(span);
+  }
+
+  @Benchmark
+  @Threads(64)
+  public void onEnd_64Threads() {
+    disruptorSpanProcessor.onEnd(span);
+  }
+}
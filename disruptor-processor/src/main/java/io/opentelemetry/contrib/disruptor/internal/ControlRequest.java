@@ -0,0 +1,169 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.internal;
+
+import com.lmax.disruptor.RingBuffer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.internal.DaemonThreadFactory;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A flush or shutdown request, executed out of band rather than published on the ring buffer. The
+ * request records the cursor of the ring buffer when it is made, and every handler executes it on
+ * its processor once it has processed the events up to that cursor. The result completes once all
+ * the handlers' results did, or fails once the deadline passes.
+ *
+ * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+ * at any time.
+ */
+public final class ControlRequest {
+  private static final Logger logger = Logger.getLogger(ControlRequest.class.getName());
+  // Delay between two attempts to publish the wake-up event of a request.
+  private static final long WAKE_UP_RETRY_NANOS = 1000 * 1000L;
+
+  private final boolean isShutdown;
+  private final long sequence;
+  private final CompletableResultCode result = new CompletableResultCode();
+  private final CompletableResultCode[] handlerResults;
+  private final AtomicInteger pendingHandlers;
+
+  /**
+   * Creates a request covering the events published on the ring buffer so far.
+   *
+   * @param isShutdown whether the handlers shut their processor down rather than flush it.
+   * @param ringBuffer the ring buffer whose cursor the handlers must reach.
+   * @param handlerCount the number of handlers executing the request.
+   * @param timeoutNanos the time after which the result fails.
+   */
+  public ControlRequest(
+      boolean isShutdown, RingBuffer<?> ringBuffer, int handlerCount, long timeoutNanos) {
+    this.isShutdown = isShutdown;
+    this.sequence = ringBuffer.getCursor();
+    this.handlerResults = new CompletableResultCode[handlerCount];
+    this.pendingHandlers = new AtomicInteger(handlerCount);
+    failAfter(result, timeoutNanos);
+  }
+
+  public boolean isShutdown() {
+    return isShutdown;
+  }
+
+  public CompletableResultCode getResult() {
+    return result;
+  }
+
+  /** Returns true once the handler has processed the events published before the request. */
+  public boolean isReachedBy(long processedSequence) {
+    return processedSequence >= sequence;
+  }
+
+  /**
+   * Publishes a wake-up event so that idle handlers execute the request, then returns its result.
+   * While the ring buffer is full some handler is still busy, but a handler that already passed
+   * the request's cursor may be idle, so the wake-up is retried until it is published or the
+   * request is done.
+   *
+   * @param tryPublishWakeUp publishes a wake-up event without waiting, returning false if the ring
+   *     buffer is full.
+   * @return the result of the request.
+   */
+  public CompletableResultCode wakeUpUntilDone(BooleanSupplier tryPublishWakeUp) {
+    if (!result.isDone() && !tryPublishWakeUp.getAsBoolean()) {
+      schedule(() -> wakeUpUntilDone(tryPublishWakeUp), WAKE_UP_RETRY_NANOS);
+    }
+    return result;
+  }
+
+  /**
+   * Flushes or shuts down the processor of the given handler, on the handler's thread.
+   *
+   * @param handlerIndex the index of the handler among the handlers executing the request.
+   * @param shutdown shuts down the handler's processor.
+   * @param forceFlush flushes the handler's processor.
+   */
+  public void execute(
+      int handlerIndex,
+      Supplier<CompletableResultCode> shutdown,
+      Supplier<CompletableResultCode> forceFlush) {
+    CompletableResultCode handlerResult;
+    try {
+      handlerResult = isShutdown ? shutdown.get() : forceFlush.get();
+    } catch (RuntimeException e) {
+      logger.log(Level.WARNING, "Exception while flushing or shutting down.", e);
+      handlerResult = CompletableResultCode.ofFailure();
+    }
+    handlerResults[handlerIndex] = handlerResult;
+    // The last handler sees the results stored by the others before their decrement.
+    if (pendingHandlers.decrementAndGet() == 0) {
+      propagateResult(CompletableResultCode.ofAll(Arrays.asList(handlerResults)), result);
+    }
+  }
+
+  /**
+   * Completes the target once the result completes. The target is captured before the event is
+   * cleared, as the delegate may complete its result after the slot has been reused.
+   */
+  public static void propagateResult(
+      final CompletableResultCode result, @Nullable final CompletableResultCode target) {
+    if (target == null) {
+      return;
+    }
+    result.whenComplete(
+        () -> {
+          if (result.isSuccess()) {
+            target.succeed();
+          } else {
+            target.fail();
+          }
+        });
+  }
+
+  /** Fails the result if it is not completed once the timeout elapses. */
+  public static void failAfter(CompletableResultCode result, long timeoutNanos) {
+    ScheduledFuture<?> deadline = schedule(result::fail, timeoutNanos);
+    if (deadline != null) {
+      result.whenComplete(() -> deadline.cancel(false));
+    }
+  }
+
+  /**
+   * Runs the task on a daemon thread shared by all the processors once the delay elapses. The
+   * tasks only complete results or publish wake-up events, so a single thread is enough. Returns
+   * null if the delay is Long.MAX_VALUE, which never elapses.
+   */
+  @Nullable
+  public static ScheduledFuture<?> schedule(Runnable task, long delayNanos) {
+    if (delayNanos == Long.MAX_VALUE) {
+      return null;
+    }
+    return Scheduler.INSTANCE.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+  }
+
+  // Holder of the lazily created scheduler.
+  private static final class Scheduler {
+    private static final ScheduledThreadPoolExecutor INSTANCE = newScheduler();
+
+    private Scheduler() {}
+
+    private static ScheduledThreadPoolExecutor newScheduler() {
+      ScheduledThreadPoolExecutor scheduler =
+          new ScheduledThreadPoolExecutor(
+              1, new DaemonThreadFactory("DisruptorEventQueue_TimeoutThread"));
+      // Deadlines are cancelled once their request completes; do not keep them queued.
+      scheduler.setRemoveOnCancelPolicy(true);
+      return scheduler;
+    }
+  }
+}
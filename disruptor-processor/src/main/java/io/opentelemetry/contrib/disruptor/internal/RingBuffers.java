@@ -0,0 +1,116 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.internal;
+
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.EventTranslatorThreeArg;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import java.util.concurrent.locks.LockSupport;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Publishes events on the ring buffers shared by the span and log processors. Slots are claimed
+ * and filled directly rather than through {@code RingBuffer.publishEvent}, so that a full ring
+ * buffer can be waited on for a bounded time without allocating.
+ *
+ * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+ * at any time.
+ */
+public final class RingBuffers {
+
+  /**
+   * Publishes an event filled by the translator, returning false if it was dropped because the ring
+   * buffer stayed full for longer than the blocking timeout: 0 drops right away and Long.MAX_VALUE
+   * waits indefinitely.
+   *
+   * @param ringBuffer the ring buffer to publish on.
+   * @param blockingTimeoutNanos the maximum time to wait for a free slot.
+   * @param translator fills the claimed slot.
+   * @param arg the argument of the translator.
+   * @return whether the event was published.
+   */
+  public static <E, A> boolean publish(
+      RingBuffer<E> ringBuffer,
+      long blockingTimeoutNanos,
+      EventTranslatorOneArg<E, A> translator,
+      @Nullable A arg) {
+    long sequence = claim(ringBuffer, blockingTimeoutNanos);
+    if (sequence < 0) {
+      return false;
+    }
+    try {
+      translator.translateTo(ringBuffer.get(sequence), sequence, arg);
+    } finally {
+      ringBuffer.publish(sequence);
+    }
+    return true;
+  }
+
+  /**
+   * Publishes an event filled by the translator, returning false if it was dropped because the ring
+   * buffer stayed full for longer than the blocking timeout, like {@link #publish(RingBuffer, long,
+   * EventTranslatorOneArg, Object)}.
+   */
+  public static <E, A, B, C> boolean publish(
+      RingBuffer<E> ringBuffer,
+      long blockingTimeoutNanos,
+      EventTranslatorThreeArg<E, A, B, C> translator,
+      @Nullable A arg0,
+      @Nullable B arg1,
+      @Nullable C arg2) {
+    long sequence = claim(ringBuffer, blockingTimeoutNanos);
+    if (sequence < 0) {
+      return false;
+    }
+    try {
+      translator.translateTo(ringBuffer.get(sequence), sequence, arg0, arg1, arg2);
+    } finally {
+      ringBuffer.publish(sequence);
+    }
+    return true;
+  }
+
+  /**
+   * Claims the next slot of the ring buffer, returning -1 if none was available within the
+   * timeout: 0 gives up right away and Long.MAX_VALUE waits indefinitely. The claimed sequence
+   * must be published, even if filling the slot fails.
+   *
+   * @param ringBuffer the ring buffer to claim a slot of.
+   * @param blockingTimeoutNanos the maximum time to wait for a free slot.
+   * @return the claimed sequence, or -1.
+   */
+  private static long claim(RingBuffer<?> ringBuffer, long blockingTimeoutNanos) {
+    if (blockingTimeoutNanos == Long.MAX_VALUE) {
+      return ringBuffer.next();
+    }
+    return tryNext(ringBuffer, blockingTimeoutNanos);
+  }
+
+  // Claims the next slot, retrying until the timeout elapses. Returns -1 if no slot was available.
+  private static long tryNext(RingBuffer<?> ringBuffer, long timeoutNanos) {
+    long deadline = 0;
+    while (true) {
+      try {
+        return ringBuffer.tryNext();
+      } catch (InsufficientCapacityException e) {
+        if (timeoutNanos == 0) {
+          return -1;
+        }
+        long now = System.nanoTime();
+        if (deadline == 0) {
+          deadline = now + timeoutNanos;
+        } else if (now - deadline >= 0) {
+          return -1;
+        }
+        // Same back-off as RingBuffer.next() uses while the ring buffer is full.
+        LockSupport.parkNanos(1);
+      }
+    }
+  }
+
+  private RingBuffers() {}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.logs;
+
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import io.opentelemetry.contrib.disruptor.internal.ControlRequest;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logging.LogProcessor;
+import io.opentelemetry.sdk.logging.data.LogRecord;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * A {@link LogProcessor} implementation that uses {@code Disruptor} to hand the log records to
+ * another {@code LogProcessor} on a worker thread.
+ *
+ * <p>The log records are published on the same kind of ring buffer as the span events of the
+ * {@code DisruptorSpanProcessor}, with the same blocking, non-blocking and wait strategy options.
+ * Flush and shutdown requests are not published on the ring buffer: they record its cursor at call
+ * time and are executed by the worker thread once it has processed the log records up to that
+ * cursor. Their result fails once the control timeout elapses.
+ */
+public final class DisruptorLogProcessor implements LogProcessor {
+  private static final Logger logger = Logger.getLogger(DisruptorLogProcessor.class.getName());
+
+  private final RingBuffer<LogEvent> ringBuffer;
+  private final LogEventHandler eventHandler;
+  private final long blockingTimeoutNanos;
+  private final long controlTimeoutNanos;
+  private final AtomicBoolean loggedShutdownMessage = new AtomicBoolean(false);
+  private volatile boolean isShutdown = false;
+
+  /**
+   * Returns a new Builder for {@link DisruptorLogProcessor}.
+   *
+   * @param logProcessor the {@code LogProcessor} to where the log records are pushed.
+   * @return a new {@link DisruptorLogProcessorBuilder}.
+   * @throws NullPointerException if the {@code logProcessor} is {@code null}.
+   */
+  public static DisruptorLogProcessorBuilder builder(LogProcessor logProcessor) {
+    return new DisruptorLogProcessorBuilder(Objects.requireNonNull(logProcessor));
+  }
+
+  @Override
+  public void addLogRecord(LogRecord record) {
+    if (isShutdown) {
+      if (!loggedShutdownMessage.getAndSet(true)) {
+        logger.info("Attempted to add log record after Disruptor shutdown.");
+      }
+      return;
+    }
+    LogEvent.publish(ringBuffer, blockingTimeoutNanos, record);
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    synchronized (this) {
+      if (isShutdown) {
+        // Race condition between two calls to shutdown. The other call already finished.
+        return CompletableResultCode.ofSuccess();
+      }
+      isShutdown = true;
+      return enqueueControlRequest(/* isShutdown= */ true);
+    }
+  }
+
+  @Override
+  public CompletableResultCode forceFlush() {
+    if (isShutdown) {
+      if (!loggedShutdownMessage.getAndSet(true)) {
+        logger.info("Attempted to flush after Disruptor shutdown.");
+      }
+      return CompletableResultCode.ofFailure();
+    }
+    return enqueueControlRequest(/* isShutdown= */ false);
+  }
+
+  private CompletableResultCode enqueueControlRequest(boolean isShutdown) {
+    ControlRequest request =
+        new ControlRequest(isShutdown, ringBuffer, /* handlerCount= */ 1, controlTimeoutNanos);
+    eventHandler.addControlRequest(request);
+    return request.wakeUpUntilDone(() -> LogEvent.publish(ringBuffer, 0, null));
+  }
+
+  DisruptorLogProcessor(
+      LogProcessor logProcessor,
+      int bufferSize,
+      WaitStrategy waitStrategy,
+      ThreadFactory threadFactory,
+      long blockingTimeoutNanos,
+      long controlTimeoutNanos) {
+    // Disruptor creates a single thread per consumer, so the LogProcessor is always invoked from
+    // the same thread.
+    Disruptor<LogEvent> disruptor =
+        new Disruptor<>(
+            LogEvent.FACTORY, bufferSize, threadFactory, ProducerType.MULTI, waitStrategy);
+    this.eventHandler = new LogEventHandler(logProcessor);
+    disruptor.handleEventsWith(eventHandler);
+    this.ringBuffer = disruptor.start();
+    this.blockingTimeoutNanos = blockingTimeoutNanos;
+    this.controlTimeoutNanos = controlTimeoutNanos;
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.logs;
+
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import io.opentelemetry.sdk.internal.DaemonThreadFactory;
+import io.opentelemetry.sdk.logging.LogProcessor;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/** Builder for {@link DisruptorLogProcessor}. */
+public final class DisruptorLogProcessorBuilder {
+
+  // Number of log records that can be enqueued at any one time. If more than this are enqueued,
+  // then subsequent attempts to enqueue new entries will block.
+  private static final int DEFAULT_DISRUPTOR_BUFFER_SIZE = 8192;
+  // The default value of the Disruptor behavior, blocks when no space available.
+  private static final boolean DEFAULT_BLOCKING = true;
+  // The default number of retries for the SleepingWaitingStrategy.
+  private static final int DEFAULT_NUM_RETRIES = 0;
+  // The default waiting time in ns for the SleepingWaitingStrategy.
+  private static final long DEFAULT_SLEEPING_TIME_NS = 1000 * 1000L;
+  // The default maximum time forceFlush and shutdown take before their result fails.
+  private static final long DEFAULT_CONTROL_TIMEOUT_MILLIS = 30_000;
+  private static final String WORKER_THREAD_NAME = "DisruptorLogProcessor_WorkerThread";
+
+  private final LogProcessor logProcessor;
+  private int bufferSize = DEFAULT_DISRUPTOR_BUFFER_SIZE;
+  private boolean blocking = DEFAULT_BLOCKING;
+  private long blockingTimeoutNanos = 0;
+  private WaitStrategy waitStrategy =
+      new SleepingWaitStrategy(DEFAULT_NUM_RETRIES, DEFAULT_SLEEPING_TIME_NS);
+  @Nullable private ThreadFactory threadFactory = null;
+  private long controlTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_CONTROL_TIMEOUT_MILLIS);
+
+  DisruptorLogProcessorBuilder(LogProcessor logProcessor) {
+    this.logProcessor = logProcessor;
+  }
+
+  /**
+   * If {@code true} blocks when the Disruptor's ring buffer is full.
+   *
+   * @param blocking {@code true} blocks when the Disruptor's ring buffer is full.
+   * @return this.
+   */
+  public DisruptorLogProcessorBuilder setBlocking(boolean blocking) {
+    this.blocking = blocking;
+    return this;
+  }
+
+  /**
+   * Sets the maximum time to wait for a free slot when the Disruptor's ring buffer is full and
+   * blocking is enabled. Once the timeout elapses the log record is dropped. A timeout of {@code
+   * 0}, the default, waits indefinitely.
+   *
+   * @param timeout the maximum time to wait for a free slot.
+   * @param unit the unit of {@code timeout}.
+   * @return this.
+   */
+  public DisruptorLogProcessorBuilder setBlockingTimeout(long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout must be non-negative");
+    }
+    this.blockingTimeoutNanos = unit.toNanos(timeout);
+    return this;
+  }
+
+  /**
+   * Sets the maximum time {@code forceFlush} and {@code shutdown} take to complete, after which
+   * their result fails. A timeout of {@code 0} never fails the result. Defaults to 30 seconds.
+   *
+   * @param timeout the maximum time to flush or shut down.
+   * @param unit the unit of {@code timeout}.
+   * @return this.
+   */
+  public DisruptorLogProcessorBuilder setControlTimeout(long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout must be non-negative");
+    }
+    this.controlTimeoutNanos = timeout == 0 ? Long.MAX_VALUE : unit.toNanos(timeout);
+    return this;
+  }
+
+  /**
+   * Sets the buffer size for the Disruptor's ring buffer.
+   *
+   * @param bufferSize the buffer size for the Disruptor ring buffer.
+   * @return this.
+   */
+  public DisruptorLogProcessorBuilder setBufferSize(int bufferSize) {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("bufferSize must be positive");
+    }
+    this.bufferSize = bufferSize;
+    return this;
+  }
+
+  /**
+   * Sets the {@code WaitStrategy} for the Disruptor's worker thread.
+   *
+   * @param waitingStrategy the {@code WaitStrategy} for the Disruptor's worker thread.
+   * @return this.
+   */
+  public DisruptorLogProcessorBuilder setWaitingStrategy(WaitStrategy waitingStrategy) {
+    this.waitStrategy = Objects.requireNonNull(waitingStrategy, "waitingStrategy");
+    return this;
+  }
+
+  /**
+   * Sets the {@code ThreadFactory} creating the worker thread. By default the worker is a platform
+   * daemon thread.
+   *
+   * @param threadFactory the {@code ThreadFactory} creating the worker thread.
+   * @return this.
+   */
+  public DisruptorLogProcessorBuilder setThreadFactory(ThreadFactory threadFactory) {
+    this.threadFactory = Objects.requireNonNull(threadFactory, "threadFactory");
+    return this;
+  }
+
+  /**
+   * Returns a new {@link DisruptorLogProcessor}.
+   *
+   * @return a new {@link DisruptorLogProcessor}.
+   */
+  public DisruptorLogProcessor build() {
+    // 0 drops log records right away and Long.MAX_VALUE waits indefinitely for a free slot.
+    long timeoutNanos = 0;
+    if (blocking) {
+      timeoutNanos = blockingTimeoutNanos > 0 ? blockingTimeoutNanos : Long.MAX_VALUE;
+    }
+    return new DisruptorLogProcessor(
+        logProcessor,
+        bufferSize,
+        waitStrategy,
+        threadFactory != null ? threadFactory : new DaemonThreadFactory(WORKER_THREAD_NAME),
+        timeoutNanos,
+        controlTimeoutNanos);
+  }
+}
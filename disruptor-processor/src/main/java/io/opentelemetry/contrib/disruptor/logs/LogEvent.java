@@ -0,0 +1,40 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.logs;
+
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.RingBuffer;
+import io.opentelemetry.contrib.disruptor.internal.RingBuffers;
+import io.opentelemetry.sdk.logging.data.LogRecord;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+// An event in a Disruptor ring buffer. The log record is held in a dedicated slot so that
+// publishing does not need to allocate a holder object. An event without a log record wakes the
+// consumer up so that it executes the pending flush and shutdown requests.
+final class LogEvent {
+  static final EventFactory<LogEvent> FACTORY = LogEvent::new;
+  private static final EventTranslatorOneArg<LogEvent, LogRecord> TRANSLATOR =
+      (event, sequence, logRecord) -> event.setLogRecord(logRecord);
+
+  @Nullable private LogRecord logRecord = null;
+
+  // Publishes an event on the given ring buffer, returning false if it was dropped, see
+  // RingBuffers.publish.
+  static boolean publish(
+      RingBuffer<LogEvent> ringBuffer, long blockingTimeoutNanos, @Nullable LogRecord logRecord) {
+    return RingBuffers.publish(ringBuffer, blockingTimeoutNanos, TRANSLATOR, logRecord);
+  }
+
+  void setLogRecord(@Nullable LogRecord logRecord) {
+    this.logRecord = logRecord;
+  }
+
+  @Nullable
+  LogRecord getLogRecord() {
+    return logRecord;
+  }
+}
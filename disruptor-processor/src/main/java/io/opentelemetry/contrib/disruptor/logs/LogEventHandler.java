@@ -0,0 +1,52 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.logs;
+
+import com.lmax.disruptor.EventHandler;
+import io.opentelemetry.contrib.disruptor.internal.ControlRequest;
+import io.opentelemetry.sdk.logging.LogProcessor;
+import io.opentelemetry.sdk.logging.data.LogRecord;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Hands the log records taken from a Disruptor ring buffer to the LogProcessor.
+final class LogEventHandler implements EventHandler<LogEvent> {
+  private final LogProcessor logProcessor;
+  private final ConcurrentLinkedQueue<ControlRequest> controlRequests =
+      new ConcurrentLinkedQueue<>();
+
+  LogEventHandler(LogProcessor logProcessor) {
+    this.logProcessor = logProcessor;
+  }
+
+  @Override
+  public void onEvent(final LogEvent event, long sequence, boolean endOfBatch) {
+    final LogRecord logRecord = event.getLogRecord();
+    try {
+      // Null for the wake-up events of the control requests.
+      if (logRecord != null) {
+        logProcessor.addLogRecord(logRecord);
+      }
+    } finally {
+      // Remove the reference to the previous entry to allow the memory to be gc'ed.
+      event.setLogRecord(null);
+    }
+    executeControlRequests(sequence);
+  }
+
+  // Adds a flush or shutdown request, executed once this handler processed the events published
+  // before it.
+  void addControlRequest(ControlRequest request) {
+    controlRequests.add(request);
+  }
+
+  private void executeControlRequests(long sequence) {
+    ControlRequest request;
+    while ((request = controlRequests.peek()) != null && request.isReachedBy(sequence)) {
+      controlRequests.poll();
+      request.execute(/* handlerIndex= */ 0, logProcessor::shutdown, logProcessor::forceFlush);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.util.ThreadHints;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@code WaitStrategy} that spins, then yields, then parks the Disruptor's worker thread,
+ * adapting how long it spins and yields to the observed arrival rate of the events.
+ *
+ * <p>The strategy keeps a moving average of the time the worker waits for new events. While events
+ * arrive faster than a few microseconds apart the worker spins, giving a low handoff latency; as
+ * the gaps grow it first yields and eventually parks right away, for increasingly long periods up
+ * to the maximum park time, so that an idle service uses almost no CPU.
+ */
+public final class AdaptiveWaitStrategy implements WaitStrategy {
+  // Number of spins when events arrive close together, and once they do not.
+  private static final int MAX_SPIN_TRIES = 1000;
+  private static final int MIN_SPIN_TRIES = 10;
+  // Number of yields when events arrive close enough together for yielding to pay off.
+  private static final int MAX_YIELD_TRIES = 100;
+  // Average waits up to this long are served by spinning.
+  private static final long SPIN_THRESHOLD_NANOS = 10_000L;
+  // Average waits up to this long are served by yielding; longer waits go straight to parking.
+  private static final long YIELD_THRESHOLD_NANOS = 200_000L;
+  // The first park is this long, subsequent parks double up to the maximum park time.
+  private static final long MIN_PARK_NANOS = 10_000L;
+  // The default maximum park time, matching the default SleepingWaitStrategy.
+  private static final long DEFAULT_MAX_PARK_NANOS = 1000 * 1000L;
+
+  private final long maxParkNanos;
+  private final LongAdder spinCount = new LongAdder();
+  private final LongAdder yieldCount = new LongAdder();
+  private final LongAdder parkCount = new LongAdder();
+  // Moving average of the time spent waiting for events. The strategy may be shared by several
+  // workers, in which case the average is approximate.
+  private volatile long averageWaitNanos = 0;
+
+  /** Creates a new {@link AdaptiveWaitStrategy} parking for at most one millisecond at a time. */
+  public AdaptiveWaitStrategy() {
+    this(DEFAULT_MAX_PARK_NANOS, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Creates a new {@link AdaptiveWaitStrategy}.
+   *
+   * @param maxParkTime the maximum time the worker parks for at a time, which bounds the wake-up
+   *     latency of an idle worker.
+   * @param unit the unit of {@code maxParkTime}.
+   */
+  public AdaptiveWaitStrategy(long maxParkTime, TimeUnit unit) {
+    if (maxParkTime <= 0) {
+      throw new IllegalArgumentException("maxParkTime must be positive");
+    }
+    this.maxParkNanos = Math.max(unit.toNanos(maxParkTime), MIN_PARK_NANOS);
+  }
+
+  @Override
+  public long waitFor(
+      long sequence, Sequence cursor, Sequence dependentSequence, SequenceBarrier barrier)
+      throws AlertException {
+    long availableSequence = dependentSequence.get();
+    if (availableSequence >= sequence) {
+      recordWait(0);
+      return availableSequence;
+    }
+
+    long averageWait = averageWaitNanos;
+    int spinTries = averageWait <= SPIN_THRESHOLD_NANOS ? MAX_SPIN_TRIES : MIN_SPIN_TRIES;
+    int yieldTries = averageWait <= YIELD_THRESHOLD_NANOS ? MAX_YIELD_TRIES : 0;
+    int spins = 0;
+    int yields = 0;
+    int parks = 0;
+    long parkNanos = MIN_PARK_NANOS;
+    long start = System.nanoTime();
+    while ((availableSequence = dependentSequence.get()) < sequence) {
+      barrier.checkAlert();
+      if (spins < spinTries) {
+        spins++;
+        ThreadHints.onSpinWait();
+      } else if (yields < yieldTries) {
+        yields++;
+        Thread.yield();
+      } else {
+        parks++;
+        LockSupport.parkNanos(parkNanos);
+        parkNanos = Math.min(parkNanos << 1, maxParkNanos);
+      }
+    }
+    recordWait(System.nanoTime() - start);
+    spinCount.add(spins);
+    yieldCount.add(yields);
+    parkCount.add(parks);
+    return availableSequence;
+  }
+
+  @Override
+  public void signalAllWhenBlocking() {}
+
+  long getSpinCount() {
+    return spinCount.sum();
+  }
+
+  long getYieldCount() {
+    return yieldCount.sum();
+  }
+
+  long getParkCount() {
+    return parkCount.sum();
+  }
+
+  private void recordWait(long waitNanos) {
+    // Any wait longer than the yield threshold means the worker is idle; capping it lets the
+    // average recover quickly once events start arriving again.
+    long cappedWaitNanos = Math.min(waitNanos, 2 * YIELD_THRESHOLD_NANOS);
+    long averageWait = averageWaitNanos;
+    averageWaitNanos = averageWait + ((cappedWaitNanos - averageWait) >> 3);
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A {@link SpanProcessor} that gathers ended spans in a reusable buffer and hands them to a {@link
+ * SpanExporter} when the Disruptor signals the end of a batch or when the buffer is full.
+ *
+ * <p>Optionally, the ended spans are first grouped by trace with a {@link TraceCoalescer}, and a
+ * released group is added to the buffer as a whole, so that a local trace is exported in a single
+ * call unless it holds more than the maximum batch size.
+ *
+ * <p>All the methods are invoked on the Disruptor's worker thread, so the buffer is never accessed
+ * concurrently.
+ */
+final class BatchExportingSpanProcessor implements SpanProcessor {
+  private static final Logger logger =
+      Logger.getLogger(BatchExportingSpanProcessor.class.getName());
+
+  private final SpanExporter spanExporter;
+  private final int maxExportBatchSize;
+  private final long exporterTimeoutNanos;
+  private final List<SpanData> batch;
+  private final List<SpanData> unmodifiableBatch;
+  @Nullable private final TraceCoalescer traceCoalescer;
+
+  BatchExportingSpanProcessor(
+      SpanExporter spanExporter, int maxExportBatchSize, long exporterTimeoutNanos) {
+    this(spanExporter, maxExportBatchSize, exporterTimeoutNanos, 0, 0);
+  }
+
+  // With a positive maxPendingTraces, spans are grouped by trace before being batched.
+  BatchExportingSpanProcessor(
+      SpanExporter spanExporter,
+      int maxExportBatchSize,
+      long exporterTimeoutNanos,
+      int maxPendingTraces,
+      long coalescingTimeoutNanos) {
+    this.spanExporter = spanExporter;
+    this.maxExportBatchSize = maxExportBatchSize;
+    this.exporterTimeoutNanos = exporterTimeoutNanos;
+    this.batch = new ArrayList<>(maxExportBatchSize);
+    this.unmodifiableBatch = Collections.unmodifiableList(batch);
+    this.traceCoalescer =
+        maxPendingTraces > 0
+            ? new TraceCoalescer(
+                maxPendingTraces, maxExportBatchSize, coalescingTimeoutNanos, this::addTrace)
+            : null;
+  }
+
+  @Override
+  public void onStart(Context parentContext, ReadWriteSpan span) {}
+
+  @Override
+  public boolean isStartRequired() {
+    return false;
+  }
+
+  @Override
+  public void onEnd(ReadableSpan span) {
+    if (!span.getSpanContext().isSampled()) {
+      return;
+    }
+    addSpanData(span.toSpanData());
+  }
+
+  // Adds the data of a sampled, ended span to the batch, or to the group of its trace.
+  void addSpanData(SpanData spanData) {
+    if (traceCoalescer != null) {
+      traceCoalescer.add(spanData, System.nanoTime());
+      return;
+    }
+    addToBatch(spanData);
+  }
+
+  private void addToBatch(SpanData spanData) {
+    batch.add(spanData);
+    if (batch.size() >= maxExportBatchSize) {
+      exportCurrentBatch();
+    }
+  }
+
+  // Adds a released group of spans of the same trace, exporting the current batch first if the
+  // group does not fit in it.
+  private void addTrace(List<SpanData> spans) {
+    if (batch.size() + spans.size() > maxExportBatchSize) {
+      exportCurrentBatch();
+    }
+    for (SpanData spanData : spans) {
+      addToBatch(spanData);
+    }
+  }
+
+  @Override
+  public boolean isEndRequired() {
+    return true;
+  }
+
+  // Called by the Disruptor's worker thread when there are no more events available.
+  void onEndOfBatch() {
+    if (traceCoalescer != null) {
+      traceCoalescer.releaseExpired(System.nanoTime());
+    }
+    exportCurrentBatch();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    if (traceCoalescer != null) {
+      traceCoalescer.releaseAll();
+    }
+    exportCurrentBatch();
+    return spanExporter.shutdown();
+  }
+
+  @Override
+  public CompletableResultCode forceFlush() {
+    if (traceCoalescer != null) {
+      traceCoalescer.releaseAll();
+    }
+    exportCurrentBatch();
+    return spanExporter.flush();
+  }
+
+  private void exportCurrentBatch() {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      CompletableResultCode result = spanExporter.export(unmodifiableBatch);
+      result.join(exporterTimeoutNanos, TimeUnit.NANOSECONDS);
+      if (!result.isSuccess()) {
+        logger.log(Level.FINE, "Exporter failed");
+      }
+    } catch (RuntimeException e) {
+      logger.log(Level.WARNING, "Exporter threw an Exception", e);
+    } finally {
+      batch.clear();
+    }
+  }
+}
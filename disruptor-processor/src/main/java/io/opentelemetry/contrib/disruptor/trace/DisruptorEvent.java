@@ -0,0 +1,107 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.EventTranslatorThreeArg;
+import com.lmax.disruptor.RingBuffer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.contrib.disruptor.internal.RingBuffers;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+// An event in a Disruptor ring buffer. The span and its parent context are held in dedicated slots
+// so that publishing does not need to allocate a holder object. Every event is stamped with the
+// time it was published, to measure how long it waited in the ring buffer.
+final class DisruptorEvent {
+  static final EventFactory<DisruptorEvent> FACTORY = DisruptorEvent::new;
+  private static final EventTranslatorThreeArg<DisruptorEvent, EventType, ReadableSpan, Context>
+      TRANSLATOR =
+          (event, sequence, eventType, span, parentContext) -> {
+            event.setEntry(eventType, span, parentContext);
+            event.publishNanos = System.nanoTime();
+          };
+  private static final EventTranslatorThreeArg<
+          DisruptorEvent, SpanRecordBuffer, SpanData, ReadableSpan>
+      RECORD_TRANSLATOR =
+          (event, sequence, spanRecords, spanData, span) -> {
+            if (spanRecords.write(sequence, spanData)) {
+              event.setEntry(EventType.ON_END_RECORD, null, null);
+            } else {
+              event.setEntry(EventType.ON_END, span, null);
+            }
+            event.publishNanos = System.nanoTime();
+          };
+
+  enum EventType {
+    ON_START,
+    ON_END,
+    // An ended span encoded in the SpanRecordBuffer slot of the event's sequence.
+    ON_END_RECORD,
+    // Wakes the consumer up so that it drains the priority ring buffer and executes the pending
+    // flush and shutdown requests.
+    ON_WAKE_UP
+  }
+
+  @Nullable private EventType eventType = null;
+  @Nullable private ReadableSpan span = null;
+  @Nullable private Context parentContext = null;
+  private long publishNanos = 0;
+
+  // Publishes an event on the given ring buffer, returning false if it was dropped, see
+  // RingBuffers.publish.
+  static boolean publish(
+      RingBuffer<DisruptorEvent> ringBuffer,
+      long blockingTimeoutNanos,
+      EventType eventType,
+      @Nullable ReadableSpan span,
+      @Nullable Context parentContext) {
+    return RingBuffers.publish(
+        ringBuffer, blockingTimeoutNanos, TRANSLATOR, eventType, span, parentContext);
+  }
+
+  // Publishes an end event whose span is encoded in the slot of the SpanRecordBuffer matching the
+  // claimed sequence. Spans too large for a slot keep a reference to the span instead.
+  static boolean publishRecord(
+      RingBuffer<DisruptorEvent> ringBuffer,
+      long blockingTimeoutNanos,
+      SpanRecordBuffer spanRecords,
+      ReadableSpan span) {
+    // Snapshot the span before claiming, to keep the claimed slot from holding up the consumer.
+    SpanData spanData = span.toSpanData();
+    return RingBuffers.publish(
+        ringBuffer, blockingTimeoutNanos, RECORD_TRANSLATOR, spanRecords, spanData, span);
+  }
+
+  void setEntry(
+      @Nullable EventType eventType,
+      @Nullable ReadableSpan span,
+      @Nullable Context parentContext) {
+    this.eventType = eventType;
+    this.span = span;
+    this.parentContext = parentContext;
+  }
+
+  @Nullable
+  EventType getEventType() {
+    return eventType;
+  }
+
+  @Nullable
+  ReadableSpan getSpan() {
+    return span;
+  }
+
+  @Nullable
+  Context getParentContext() {
+    return parentContext;
+  }
+
+  long getPublishNanos() {
+    return publishNanos;
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventPoller;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.contrib.disruptor.internal.ControlRequest;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+// Invokes the SpanProcessor hooks for the events taken from a Disruptor ring buffer.
+final class DisruptorEventHandler implements EventHandler<DisruptorEvent> {
+  private static final Logger logger = Logger.getLogger(DisruptorEventHandler.class.getName());
+
+  private final SpanProcessor spanProcessor;
+  private final boolean startRequired;
+  private final boolean endRequired;
+  @Nullable private final BatchExportingSpanProcessor batchExportingSpanProcessor;
+  @Nullable private final EventPoller<DisruptorEvent> priorityPoller;
+  @Nullable private final SpanRecordBuffer spanRecords;
+  // Records how long the events waited in the ring buffer, null if not recorded.
+  @Nullable private final QueueWaitHistogram queueWaitHistogram;
+  private final EventPoller.Handler<DisruptorEvent> priorityHandler;
+  private final ConcurrentLinkedQueue<ControlRequest> controlRequests =
+      new ConcurrentLinkedQueue<>();
+  // The index of this handler among the handlers processing the same events.
+  private final int handlerIndex;
+  // Whether this handler is the only one processing the events, and clears them.
+  private final boolean releasesEvents;
+
+  DisruptorEventHandler(
+      SpanProcessor spanProcessor, @Nullable QueueWaitHistogram queueWaitHistogram) {
+    this(spanProcessor, null, null, queueWaitHistogram, 0, true);
+  }
+
+  // Events of the priority poller are processed before every event of the ring buffer this
+  // handler is attached to. The span records hold the spans of the ON_END_RECORD events of that
+  // ring buffer, and are only used with a BatchExportingSpanProcessor.
+  DisruptorEventHandler(
+      SpanProcessor spanProcessor,
+      @Nullable EventPoller<DisruptorEvent> priorityPoller,
+      @Nullable SpanRecordBuffer spanRecords,
+      @Nullable QueueWaitHistogram queueWaitHistogram) {
+    this(spanProcessor, priorityPoller, spanRecords, queueWaitHistogram, 0, true);
+  }
+
+  // A handler processing the same events as other handlers. It leaves the events untouched for the
+  // ReleasingEventHandler that runs after all of them. As the histogram has a single writer, at
+  // most one of the handlers records the queue wait time.
+  DisruptorEventHandler(
+      SpanProcessor spanProcessor,
+      int handlerIndex,
+      @Nullable QueueWaitHistogram queueWaitHistogram) {
+    this(spanProcessor, null, null, queueWaitHistogram, handlerIndex, false);
+  }
+
+  private DisruptorEventHandler(
+      SpanProcessor spanProcessor,
+      @Nullable EventPoller<DisruptorEvent> priorityPoller,
+      @Nullable SpanRecordBuffer spanRecords,
+      @Nullable QueueWaitHistogram queueWaitHistogram,
+      int handlerIndex,
+      boolean releasesEvents) {
+    this.spanProcessor = spanProcessor;
+    this.startRequired = spanProcessor.isStartRequired();
+    this.endRequired = spanProcessor.isEndRequired();
+    this.batchExportingSpanProcessor =
+        spanProcessor instanceof BatchExportingSpanProcessor
+            ? (BatchExportingSpanProcessor) spanProcessor
+            : null;
+    this.priorityPoller = priorityPoller;
+    this.spanRecords = spanRecords;
+    this.queueWaitHistogram = queueWaitHistogram;
+    this.handlerIndex = handlerIndex;
+    this.releasesEvents = releasesEvents;
+    // The priority ring buffer never carries ON_END_RECORD events.
+    this.priorityHandler =
+        (event, sequence, endOfBatch) -> {
+          handle(event, sequence);
+          return true;
+        };
+  }
+
+  @Override
+  public void onEvent(final DisruptorEvent event, long sequence, boolean endOfBatch) {
+    if (priorityPoller != null) {
+      drainPriorityEvents(priorityPoller);
+    }
+    handle(event, sequence);
+    executeControlRequests(sequence);
+    if (endOfBatch) {
+      onEndOfBatch();
+    }
+  }
+
+  // Adds a flush or shutdown request, executed once this handler processed the events published
+  // before it.
+  void addControlRequest(ControlRequest request) {
+    controlRequests.add(request);
+  }
+
+  private void handle(final DisruptorEvent event, long sequence) {
+    final ReadableSpan readableSpan = event.getSpan();
+    final DisruptorEvent.EventType eventType = event.getEventType();
+    if (eventType == null) {
+      logger.warning("Disruptor enqueued null element type.");
+      return;
+    }
+    if (queueWaitHistogram != null && eventType != DisruptorEvent.EventType.ON_WAKE_UP) {
+      queueWaitHistogram.record(System.nanoTime() - event.getPublishNanos());
+    }
+    try {
+      switch (eventType) {
+        case ON_START:
+          // In practice never null
+          final Context parentContext = event.getParentContext();
+          if (startRequired && readableSpan != null && parentContext != null) {
+            spanProcessor.onStart(parentContext, (ReadWriteSpan) readableSpan);
+          }
+          break;
+        case ON_END:
+          // In practice never null
+          if (endRequired && readableSpan != null) {
+            spanProcessor.onEnd(readableSpan);
+          }
+          break;
+        case ON_END_RECORD:
+          if (spanRecords != null && batchExportingSpanProcessor != null) {
+            batchExportingSpanProcessor.addSpanData(spanRecords.read(sequence));
+          }
+          break;
+        case ON_WAKE_UP:
+          // The priority events and control requests are handled around every event.
+          break;
+      }
+    } finally {
+      if (releasesEvents) {
+        // Remove the reference to the previous entry to allow the memory to be gc'ed.
+        event.setEntry(null, null, null);
+      }
+    }
+  }
+
+  private void executeControlRequests(long sequence) {
+    ControlRequest request;
+    while ((request = controlRequests.peek()) != null && request.isReachedBy(sequence)) {
+      controlRequests.poll();
+      if (priorityPoller != null) {
+        // Priority events published before the request may have arrived after the last drain.
+        drainPriorityEvents(priorityPoller);
+      }
+      request.execute(handlerIndex, spanProcessor::shutdown, spanProcessor::forceFlush);
+    }
+  }
+
+  private void drainPriorityEvents(EventPoller<DisruptorEvent> priorityPoller) {
+    try {
+      while (priorityPoller.poll(priorityHandler) == EventPoller.PollState.PROCESSING) {
+        // Keep polling until no priority event is left.
+      }
+    } catch (Exception e) {
+      logger.log(Level.WARNING, "Exception while processing priority span events.", e);
+    }
+  }
+
+  // Called once no more events are available in the ring buffer.
+  void onEndOfBatch() {
+    if (batchExportingSpanProcessor != null) {
+      batchExportingSpanProcessor.onEndOfBatch();
+    }
+  }
+}
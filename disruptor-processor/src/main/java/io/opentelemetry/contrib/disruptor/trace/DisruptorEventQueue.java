@@ -5,22 +5,26 @@
 
 package io.opentelemetry.contrib.disruptor.trace;
 
-import com.lmax.disruptor.EventFactory;
-import com.lmax.disruptor.EventHandler;
-import com.lmax.disruptor.EventTranslatorThreeArg;
+import static java.util.Objects.requireNonNull;
+
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.EventPoller;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
 import com.lmax.disruptor.dsl.ProducerType;
 import io.opentelemetry.context.Context;
+import io.opentelemetry.contrib.disruptor.internal.ControlRequest;
+import io.opentelemetry.contrib.disruptor.trace.DisruptorEvent.EventType;
 import io.opentelemetry.sdk.common.CompletableResultCode;
-import io.opentelemetry.sdk.internal.DaemonThreadFactory;
 import io.opentelemetry.sdk.trace.ReadWriteSpan;
 import io.opentelemetry.sdk.trace.ReadableSpan;
 import io.opentelemetry.sdk.trace.SpanProcessor;
-import java.util.AbstractMap;
-import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -28,201 +32,241 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  * A low-latency event queue for background updating of (possibly contended) objects. This is
  * intended for use by instrumentation methods to ensure that they do not block foreground
  * activities.
+ *
+ * <p>Optionally, end events of spans matching a predicate are published on a second, smaller ring
+ * buffer, the priority lane. The worker drains the priority lane before every event it takes from
+ * the main ring buffer, and a wake-up event is published on the main ring buffer after each
+ * priority event so that an idle worker notices it. When the main ring buffer is full, priority
+ * events therefore still have their own capacity and are processed ahead of the backlog.
+ *
+ * <p>The {@link SpanProcessor}s are organized in stages. With several of them, every one is run by
+ * its own worker thread on the same ring buffer, each with its own gating sequence, so a slow
+ * processor does not delay the others of its stage. A stage processes an event once all the
+ * processors of the previous stage did, and a last handler clears the slots once the last stage
+ * processed the event.
+ *
+ * <p>Flush and shutdown requests are not published on the ring buffer, where they could wait
+ * behind a full buffer or be dropped. They record the cursor of the ring buffer at call time and
+ * are executed by every handler once it has processed the events up to that cursor; a wake-up
+ * event, retried until the ring buffer has room, makes idle handlers notice them. Their result
+ * fails once the control timeout elapses.
+ *
+ * <p>Optionally, start events are skipped once fewer free slots than the start event headroom are
+ * left, so that the remaining capacity is kept for the end events, which matter more to most
+ * processors.
+ *
+ * <p>Optionally, a wake-up event is published periodically so that an idle handler still releases
+ * the span groups of a trace coalescing {@code BatchExportingSpanProcessor} once they expire.
  */
-final class DisruptorEventQueue {
+final class DisruptorEventQueue implements EventQueue {
   private static final Logger logger = Logger.getLogger(DisruptorEventQueue.class.getName());
-  private static final String WORKER_THREAD_NAME = "DisruptorEventQueue_WorkerThread";
-
-  private static final EventTranslatorThreeArg<
-          DisruptorEvent, EventType, Object, CompletableResultCode>
-      TRANSLATOR_THREE_ARG =
-          (event, sequence, eventType, span, result) -> event.setEntry(eventType, span, result);
-  private static final EventFactory<DisruptorEvent> EVENT_FACTORY = DisruptorEvent::new;
 
   private final RingBuffer<DisruptorEvent> ringBuffer;
+  @Nullable private final RingBuffer<DisruptorEvent> priorityRingBuffer;
+  private final Predicate<ReadableSpan> priorityPredicate;
+  @Nullable private final SpanRecordBuffer spanRecords;
   private final AtomicBoolean loggedShutdownMessage = new AtomicBoolean(false);
   private volatile boolean isShutdown = false;
-  private final boolean blocking;
-
-  private enum EventType {
-    ON_START,
-    ON_END,
-    ON_SHUTDOWN,
-    ON_FORCE_FLUSH
-  }
+  private final long blockingTimeoutNanos;
+  private final int startEventHeadroom;
+  private final DisruptorMetrics metrics;
+  private final DisruptorEventHandler[] handlers;
+  private final long controlTimeoutNanos;
 
   DisruptorEventQueue(
-      int bufferSize, WaitStrategy waitStrategy, SpanProcessor spanProcessor, boolean blocking) {
+      int bufferSize,
+      WaitStrategy waitStrategy,
+      ThreadFactory threadFactory,
+      List<List<SpanProcessor>> stages,
+      long blockingTimeoutNanos,
+      int startEventHeadroom,
+      int priorityBufferSize,
+      Predicate<ReadableSpan> priorityPredicate,
+      @Nullable SpanRecordBuffer spanRecords,
+      long controlTimeoutNanos,
+      long wakeUpIntervalNanos,
+      DisruptorMetrics metrics) {
     // Create new Disruptor for processing. Note that Disruptor creates a single thread per
     // consumer (see https://github.com/LMAX-Exchange/disruptor/issues/121 for details);
     // this ensures that the event handler can take unsynchronized actions whenever possible.
     Disruptor<DisruptorEvent> disruptor =
         new Disruptor<>(
-            EVENT_FACTORY,
+            DisruptorEvent.FACTORY,
             bufferSize,
-            new DaemonThreadFactory(WORKER_THREAD_NAME),
+            threadFactory,
             ProducerType.MULTI,
             waitStrategy);
-    disruptor.handleEventsWith(new DisruptorEventHandler(spanProcessor));
+    EventPoller<DisruptorEvent> priorityPoller = null;
+    if (priorityBufferSize > 0) {
+      // The priority ring buffer is polled, so the wait strategy is never used to wait. The busy
+      // spin strategy has a no-op signal, which keeps publishing free of locks.
+      this.priorityRingBuffer =
+          RingBuffer.createMultiProducer(
+              DisruptorEvent.FACTORY, priorityBufferSize, new BusySpinWaitStrategy());
+      priorityPoller = priorityRingBuffer.newPoller();
+      priorityRingBuffer.addGatingSequences(priorityPoller.getSequence());
+    } else {
+      this.priorityRingBuffer = null;
+    }
+    this.priorityPredicate = priorityPredicate;
+    this.spanRecords = spanRecords;
+    this.handlers = new DisruptorEventHandler[handlerCount(stages)];
+    if (handlers.length > 1) {
+      EventHandlerGroup<DisruptorEvent> group = null;
+      int handlerIndex = 0;
+      for (List<SpanProcessor> stage : stages) {
+        DisruptorEventHandler[] stageHandlers = new DisruptorEventHandler[stage.size()];
+        for (int i = 0; i < stageHandlers.length; i++) {
+          stageHandlers[i] =
+              new DisruptorEventHandler(
+                  stage.get(i),
+                  handlerIndex,
+                  handlerIndex == 0 ? metrics.newQueueWaitHistogram() : null);
+          handlers[handlerIndex++] = stageHandlers[i];
+        }
+        group =
+            group == null ? disruptor.handleEventsWith(stageHandlers) : group.then(stageHandlers);
+      }
+      requireNonNull(group).then(new ReleasingEventHandler());
+    } else {
+      handlers[0] =
+          new DisruptorEventHandler(
+              stages.get(0).get(0),
+              priorityPoller,
+              spanRecords,
+              metrics.newQueueWaitHistogram());
+      disruptor.handleEventsWith(handlers[0]);
+    }
     this.ringBuffer = disruptor.start();
-    this.blocking = blocking;
+    this.blockingTimeoutNanos = blockingTimeoutNanos;
+    this.startEventHeadroom = startEventHeadroom;
+    this.controlTimeoutNanos = controlTimeoutNanos;
+    this.metrics = metrics;
+    if (wakeUpIntervalNanos != Long.MAX_VALUE) {
+      wakeUpPeriodically(wakeUpIntervalNanos);
+    }
   }
 
-  void enqueueStartEvent(ReadWriteSpan span, Context parentContext) {
+  private static int handlerCount(List<List<SpanProcessor>> stages) {
+    int handlerCount = 0;
+    for (List<SpanProcessor> stage : stages) {
+      handlerCount += stage.size();
+    }
+    return handlerCount;
+  }
+
+  @Override
+  public void enqueueStartEvent(ReadWriteSpan span, Context parentContext) {
     if (isShutdown) {
       if (!loggedShutdownMessage.getAndSet(true)) {
         logger.info("Attempted to enqueue start event after Disruptor shutdown.");
       }
       return;
     }
-    enqueue(EventType.ON_START, new AbstractMap.SimpleImmutableEntry<>(span, parentContext), null);
+    if (startEventHeadroom > 0 && ringBuffer.remainingCapacity() < startEventHeadroom) {
+      metrics.recordShedStartEvent();
+      return;
+    }
+    enqueue(EventType.ON_START, span, parentContext);
   }
 
-  void enqueueEndEvent(ReadableSpan span) {
+  @Override
+  public void enqueueEndEvent(ReadableSpan span) {
     if (isShutdown) {
       if (!loggedShutdownMessage.getAndSet(true)) {
         logger.info("Attempted to enqueue end event after Disruptor shutdown.");
       }
       return;
     }
+    if (priorityRingBuffer != null && priorityPredicate.test(span)) {
+      enqueuePriority(priorityRingBuffer, span);
+      return;
+    }
+    if (spanRecords != null) {
+      enqueueRecord(spanRecords, span);
+      return;
+    }
     enqueue(EventType.ON_END, span, null);
   }
 
-  // Shuts down the underlying disruptor. Ensures that when this method returns the disruptor is
-  // shutdown.
-  CompletableResultCode shutdown() {
+  @Override
+  public CompletableResultCode shutdown() {
     synchronized (this) {
       if (isShutdown) {
         // Race condition between two calls to shutdown. The other call already finished.
         return CompletableResultCode.ofSuccess();
       }
       isShutdown = true;
-      return enqueueWithResult(EventType.ON_SHUTDOWN);
+      return enqueueControlRequest(/* isShutdown= */ true);
     }
   }
 
-  // Force to publish the ended spans to the SpanProcessor
-  CompletableResultCode forceFlush() {
+  @Override
+  public CompletableResultCode forceFlush() {
     if (isShutdown) {
       if (!loggedShutdownMessage.getAndSet(true)) {
         logger.info("Attempted to flush after Disruptor shutdown.");
       }
       return CompletableResultCode.ofFailure();
     }
-    return enqueueWithResult(EventType.ON_FORCE_FLUSH);
+    return enqueueControlRequest(/* isShutdown= */ false);
   }
 
-  private CompletableResultCode enqueueWithResult(EventType event) {
-    CompletableResultCode result = new CompletableResultCode();
-    enqueue(event, null, result);
-    return result;
+  @Override
+  public long remainingCapacity() {
+    return ringBuffer.remainingCapacity();
   }
 
-  // Enqueues an event on the {@link DisruptorEventQueue}.
-  private void enqueue(
-      EventType eventType, @Nullable Object span, @Nullable CompletableResultCode result) {
-    if (blocking) {
-      ringBuffer.publishEvent(TRANSLATOR_THREE_ARG, eventType, span, result);
-    } else {
-      // TODO: Record metrics if element not added.
-      ringBuffer.tryPublishEvent(TRANSLATOR_THREE_ARG, eventType, span, result);
-    }
+  @Override
+  public long consumerLag() {
+    return ringBuffer.getCursor() - ringBuffer.getMinimumGatingSequence();
   }
 
-  // An event in the {@link EventQueue}. Just holds a reference to an EventQueue.Entry.
-  private static final class DisruptorEvent {
-    @Nullable private Object eventArgs = null;
-    @Nullable private EventType eventType = null;
-    @Nullable private CompletableResultCode result = null;
-
-    void setEntry(
-        @Nullable EventType eventType,
-        @Nullable Object span,
-        @Nullable CompletableResultCode result) {
-      this.eventArgs = span;
-      this.eventType = eventType;
-      this.result = result;
-    }
-
-    @Nullable
-    Object getEventArgs() {
-      return eventArgs;
-    }
-
-    @Nullable
-    EventType getEventType() {
-      return eventType;
+  private CompletableResultCode enqueueControlRequest(boolean isShutdown) {
+    ControlRequest request =
+        new ControlRequest(isShutdown, ringBuffer, handlers.length, controlTimeoutNanos);
+    for (DisruptorEventHandler handler : handlers) {
+      handler.addControlRequest(request);
     }
+    return request.wakeUpUntilDone(
+        () -> DisruptorEvent.publish(ringBuffer, 0, EventType.ON_WAKE_UP, null, null));
+  }
 
-    void succeed() {
-      if (result != null) {
-        result.succeed();
-      }
+  // Publishes a wake-up event every interval until shutdown. Never waits: if the ring buffer is
+  // full the handlers are busy and notice the expired groups at their next end of batch anyway.
+  private void wakeUpPeriodically(long intervalNanos) {
+    if (isShutdown) {
+      return;
     }
+    DisruptorEvent.publish(ringBuffer, 0, EventType.ON_WAKE_UP, null, null);
+    ControlRequest.schedule(() -> wakeUpPeriodically(intervalNanos), intervalNanos);
+  }
 
-    void fail() {
-      if (result != null) {
-        result.fail();
-      }
+  private void enqueuePriority(RingBuffer<DisruptorEvent> priorityRingBuffer, ReadableSpan span) {
+    if (!DisruptorEvent.publish(
+        priorityRingBuffer, blockingTimeoutNanos, EventType.ON_END, span, null)) {
+      metrics.recordDroppedEvent(EventType.ON_END);
+      return;
     }
+    // Never waits: if the main ring buffer is full the worker is busy and drains the priority
+    // lane before its next event anyway.
+    DisruptorEvent.publish(ringBuffer, 0, EventType.ON_WAKE_UP, null, null);
   }
 
-  private static final class DisruptorEventHandler implements EventHandler<DisruptorEvent> {
-    private final SpanProcessor spanProcessor;
-
-    private DisruptorEventHandler(SpanProcessor spanProcessor) {
-      this.spanProcessor = spanProcessor;
+  private void enqueueRecord(SpanRecordBuffer spanRecords, ReadableSpan span) {
+    // Span records are only used for exporting, which skips the spans that are not sampled.
+    if (!span.getSpanContext().isSampled()) {
+      return;
     }
-
-    @Override
-    public void onEvent(final DisruptorEvent event, long sequence, boolean endOfBatch) {
-      final Object readableSpan = event.getEventArgs();
-      final EventType eventType = event.getEventType();
-      if (eventType == null) {
-        logger.warning("Disruptor enqueued null element type.");
-        return;
-      }
-      try {
-        switch (eventType) {
-          case ON_START:
-            // In practice never null
-            if (readableSpan != null) {
-              @SuppressWarnings("unchecked")
-              final SimpleImmutableEntry<ReadWriteSpan, Context> eventArgs =
-                  (SimpleImmutableEntry<ReadWriteSpan, Context>) readableSpan;
-              spanProcessor.onStart(eventArgs.getValue(), eventArgs.getKey());
-            }
-            break;
-          case ON_END:
-            // In practice never null
-            if (readableSpan != null) {
-              spanProcessor.onEnd((ReadableSpan) readableSpan);
-            }
-            break;
-          case ON_SHUTDOWN:
-            propagateResult(spanProcessor.shutdown(), event);
-            break;
-          case ON_FORCE_FLUSH:
-            propagateResult(spanProcessor.forceFlush(), event);
-
-            break;
-        }
-      } finally {
-        // Remove the reference to the previous entry to allow the memory to be gc'ed.
-        event.setEntry(null, null, null);
-      }
+    if (!DisruptorEvent.publishRecord(ringBuffer, blockingTimeoutNanos, spanRecords, span)) {
+      metrics.recordDroppedEvent(EventType.ON_END);
     }
   }
 
-  private static void propagateResult(
-      final CompletableResultCode result, final DisruptorEvent event) {
-    result.whenComplete(
-        () -> {
-          if (result.isSuccess()) {
-            event.succeed();
-          } else {
-            event.fail();
-          }
-        });
+  // Enqueues an event on the {@link DisruptorEventQueue}.
+  private void enqueue(EventType eventType, ReadableSpan span, @Nullable Context parentContext) {
+    if (!DisruptorEvent.publish(ringBuffer, blockingTimeoutNanos, eventType, span, parentContext)) {
+      metrics.recordDroppedEvent(eventType);
+    }
   }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.MeterProvider;
+import io.opentelemetry.contrib.disruptor.trace.DisruptorEvent.EventType;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/** Metrics describing the state of the {@link EventQueue}. */
+final class DisruptorMetrics {
+  private static final String INSTRUMENTATION_NAME = "io.opentelemetry.contrib.disruptor";
+  private static final AttributeKey<String> EVENT_TYPE = AttributeKey.stringKey("type");
+  private static final Attributes START_EVENT = Attributes.of(EVENT_TYPE, "start");
+  private static final Attributes END_EVENT = Attributes.of(EVENT_TYPE, "end");
+  private static final AttributeKey<String> WAIT = AttributeKey.stringKey("wait");
+  private static final Attributes SPIN_WAIT = Attributes.of(WAIT, "spin");
+  private static final Attributes YIELD_WAIT = Attributes.of(WAIT, "yield");
+  private static final Attributes PARK_WAIT = Attributes.of(WAIT, "park");
+  private static final AttributeKey<String> QUANTILE = AttributeKey.stringKey("quantile");
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999, 1.0};
+  private static final Attributes[] QUANTILE_ATTRIBUTES = {
+    Attributes.of(QUANTILE, "0.5"),
+    Attributes.of(QUANTILE, "0.9"),
+    Attributes.of(QUANTILE, "0.99"),
+    Attributes.of(QUANTILE, "0.999"),
+    Attributes.of(QUANTILE, "1.0")
+  };
+
+  private final Meter meter;
+  private final LongCounter droppedEvents;
+  private final LongCounter shedStartEvents;
+  private final boolean recordQueueWaitTime;
+  // One histogram per worker thread recording queue wait times.
+  private final List<QueueWaitHistogram> queueWaitHistograms = new CopyOnWriteArrayList<>();
+  // The bucket counts at the previous collection, so that every collection reports the
+  // percentiles of the events processed since the previous one.
+  private final long[] previousQueueWaitCounts = new long[QueueWaitHistogram.BUCKET_COUNT];
+
+  DisruptorMetrics(MeterProvider meterProvider, boolean recordQueueWaitTime) {
+    this.recordQueueWaitTime = recordQueueWaitTime;
+    this.meter = meterProvider.get(INSTRUMENTATION_NAME);
+    this.droppedEvents =
+        meter
+            .counterBuilder("disruptor.span_processor.dropped_events")
+            .setDescription("The number of span events dropped because the ring buffer was full")
+            .setUnit("1")
+            .build();
+    this.shedStartEvents =
+        meter
+            .counterBuilder("disruptor.span_processor.shed_start_events")
+            .setDescription(
+                "The number of span start events skipped because the ring buffer occupancy was"
+                    + " above the high-water mark")
+            .setUnit("1")
+            .build();
+  }
+
+  void recordDroppedEvent(EventType eventType) {
+    if (eventType == EventType.ON_START) {
+      droppedEvents.add(1, START_EVENT);
+    } else if (eventType == EventType.ON_END) {
+      droppedEvents.add(1, END_EVENT);
+    }
+  }
+
+  void recordShedStartEvent() {
+    shedStartEvents.add(1);
+  }
+
+  // Returns a new histogram for a worker thread to record the queue wait times into, or null if the
+  // queue wait time is not recorded.
+  @Nullable
+  QueueWaitHistogram newQueueWaitHistogram() {
+    if (!recordQueueWaitTime) {
+      return null;
+    }
+    QueueWaitHistogram histogram = new QueueWaitHistogram();
+    queueWaitHistograms.add(histogram);
+    return histogram;
+  }
+
+  // Registers the gauge reporting the percentiles of the queue wait time of the events processed
+  // since the previous collection, over all the worker threads.
+  void registerQueueWaitTimeGauge() {
+    if (!recordQueueWaitTime) {
+      return;
+    }
+    meter
+        .gaugeBuilder("disruptor.span_processor.queue_wait_time")
+        .ofLongs()
+        .setDescription(
+            "Percentiles of the time span events waited in the ring buffer before being processed")
+        .setUnit("ns")
+        .buildWithCallback(
+            measurement -> {
+              long[] counts = collectQueueWaitCounts();
+              long total = 0;
+              for (long count : counts) {
+                total += count;
+              }
+              if (total == 0) {
+                return;
+              }
+              for (int i = 0; i < QUANTILES.length; i++) {
+                measurement.observe(
+                    valueAtQuantile(counts, total, QUANTILES[i]), QUANTILE_ATTRIBUTES[i]);
+              }
+            });
+  }
+
+  // Returns the bucket counts recorded since the previous call.
+  private synchronized long[] collectQueueWaitCounts() {
+    long[] counts = new long[QueueWaitHistogram.BUCKET_COUNT];
+    for (QueueWaitHistogram histogram : queueWaitHistograms) {
+      histogram.addTo(counts);
+    }
+    for (int i = 0; i < counts.length; i++) {
+      long current = counts[i];
+      counts[i] -= previousQueueWaitCounts[i];
+      previousQueueWaitCounts[i] = current;
+    }
+    return counts;
+  }
+
+  private static long valueAtQuantile(long[] counts, long total, double quantile) {
+    // The rank of the value at the quantile, at least 1 so that quantile 0 is the minimum.
+    long rank = Math.max(1, (long) Math.ceil(quantile * total));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return QueueWaitHistogram.highestValueOf(i);
+      }
+    }
+    return QueueWaitHistogram.highestValueOf(counts.length - 1);
+  }
+
+  // Registers the gauges observing the ring buffer(s) of the given queue.
+  void registerQueueGauges(EventQueue queue) {
+    meter
+        .gaugeBuilder("disruptor.span_processor.remaining_capacity")
+        .ofLongs()
+        .setDescription("The number of free slots in the ring buffer")
+        .setUnit("1")
+        .buildWithCallback(measurement -> measurement.observe(queue.remainingCapacity()));
+    meter
+        .gaugeBuilder("disruptor.span_processor.consumer_lag")
+        .ofLongs()
+        .setDescription("The number of published events not yet processed by the consumer")
+        .setUnit("1")
+        .buildWithCallback(measurement -> measurement.observe(queue.consumerLag()));
+  }
+
+  // Registers the counter observing how the worker waited for events.
+  void registerWaitStrategyCounter(AdaptiveWaitStrategy waitStrategy) {
+    meter
+        .counterBuilder("disruptor.span_processor.wait_strategy.waits")
+        .setDescription("The number of times the worker spun, yielded or parked waiting for events")
+        .setUnit("1")
+        .buildWithCallback(
+            measurement -> {
+              measurement.observe(waitStrategy.getSpinCount(), SPIN_WAIT);
+              measurement.observe(waitStrategy.getYieldCount(), YIELD_WAIT);
+              measurement.observe(waitStrategy.getParkCount(), PARK_WAIT);
+            });
+  }
+}
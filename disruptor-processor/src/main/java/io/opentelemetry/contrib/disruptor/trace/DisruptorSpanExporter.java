@@ -0,0 +1,131 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import io.opentelemetry.contrib.disruptor.internal.ControlRequest;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * A {@link SpanExporter} implementation that uses {@code Disruptor} to hand the batches of spans to
+ * another {@code SpanExporter} on a worker thread.
+ *
+ * <p>{@link #export(Collection)} copies the batch into a ring buffer of batches and returns right
+ * away, so a slow collector does not hold up the caller, typically the worker of the SDK's {@code
+ * BatchSpanProcessor}. The worker thread exports the batches in order, retrying a failed export
+ * with an exponential backoff up to the maximum number of retries; meanwhile the following batches
+ * wait in the ring buffer. When the ring buffer stays full for longer than the blocking timeout
+ * the batch is dropped and the result of {@code export} fails.
+ *
+ * <p>Flush and shutdown requests are not published on the ring buffer: they record its cursor at
+ * call time and are executed by the worker thread once it has exported the batches up to that
+ * cursor. Once shutdown is requested, failed exports are no longer retried. Their result fails once
+ * the control timeout elapses.
+ */
+public final class DisruptorSpanExporter implements SpanExporter {
+  private static final Logger logger = Logger.getLogger(DisruptorSpanExporter.class.getName());
+
+  private final RingBuffer<SpanBatchEvent> ringBuffer;
+  private final SpanBatchEventHandler eventHandler;
+  private final long blockingTimeoutNanos;
+  private final long controlTimeoutNanos;
+  private final AtomicBoolean loggedShutdownMessage = new AtomicBoolean(false);
+  private volatile boolean isShutdown = false;
+
+  /**
+   * Returns a new Builder for {@link DisruptorSpanExporter}.
+   *
+   * @param spanExporter the {@code SpanExporter} to where the batches of spans are pushed.
+   * @return a new {@link DisruptorSpanExporterBuilder}.
+   * @throws NullPointerException if the {@code spanExporter} is {@code null}.
+   */
+  public static DisruptorSpanExporterBuilder builder(SpanExporter spanExporter) {
+    return new DisruptorSpanExporterBuilder(Objects.requireNonNull(spanExporter));
+  }
+
+  @Override
+  public CompletableResultCode export(Collection<SpanData> spans) {
+    if (isShutdown) {
+      if (!loggedShutdownMessage.getAndSet(true)) {
+        logger.info("Attempted to export after Disruptor shutdown.");
+      }
+      return CompletableResultCode.ofFailure();
+    }
+    // The caller may reuse its collection once this method returns.
+    Collection<SpanData> batch = Collections.unmodifiableList(new ArrayList<>(spans));
+    if (!SpanBatchEvent.publish(ringBuffer, blockingTimeoutNanos, batch)) {
+      return CompletableResultCode.ofFailure();
+    }
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    if (isShutdown) {
+      if (!loggedShutdownMessage.getAndSet(true)) {
+        logger.info("Attempted to flush after Disruptor shutdown.");
+      }
+      return CompletableResultCode.ofFailure();
+    }
+    return enqueueControlRequest(/* isShutdown= */ false);
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    synchronized (this) {
+      if (isShutdown) {
+        // Race condition between two calls to shutdown. The other call already finished.
+        return CompletableResultCode.ofSuccess();
+      }
+      isShutdown = true;
+      return enqueueControlRequest(/* isShutdown= */ true);
+    }
+  }
+
+  private CompletableResultCode enqueueControlRequest(boolean isShutdown) {
+    ControlRequest request =
+        new ControlRequest(isShutdown, ringBuffer, /* handlerCount= */ 1, controlTimeoutNanos);
+    eventHandler.addControlRequest(request);
+    return request.wakeUpUntilDone(() -> SpanBatchEvent.publish(ringBuffer, 0, null));
+  }
+
+  DisruptorSpanExporter(
+      SpanExporter spanExporter,
+      int bufferSize,
+      WaitStrategy waitStrategy,
+      ThreadFactory threadFactory,
+      long blockingTimeoutNanos,
+      long exporterTimeoutNanos,
+      int maxRetries,
+      long initialBackoffNanos,
+      long maxBackoffNanos,
+      long controlTimeoutNanos) {
+    // Disruptor creates a single thread per consumer, so the SpanExporter is never called
+    // concurrently.
+    Disruptor<SpanBatchEvent> disruptor =
+        new Disruptor<>(
+            SpanBatchEvent.FACTORY, bufferSize, threadFactory, ProducerType.MULTI, waitStrategy);
+    this.eventHandler =
+        new SpanBatchEventHandler(
+            spanExporter, exporterTimeoutNanos, maxRetries, initialBackoffNanos, maxBackoffNanos);
+    disruptor.handleEventsWith(eventHandler);
+    this.ringBuffer = disruptor.start();
+    this.blockingTimeoutNanos = blockingTimeoutNanos;
+    this.controlTimeoutNanos = controlTimeoutNanos;
+  }
+}
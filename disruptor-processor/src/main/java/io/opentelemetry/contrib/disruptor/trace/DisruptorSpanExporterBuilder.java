@@ -0,0 +1,194 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import io.opentelemetry.sdk.internal.DaemonThreadFactory;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/** Builder for {@link DisruptorSpanExporter}. */
+public final class DisruptorSpanExporterBuilder {
+
+  // Number of batches that can be enqueued at any one time.
+  private static final int DEFAULT_DISRUPTOR_BUFFER_SIZE = 64;
+  // The default number of retries for the SleepingWaitingStrategy.
+  private static final int DEFAULT_NUM_RETRIES = 0;
+  // The default waiting time in ns for the SleepingWaitingStrategy.
+  private static final long DEFAULT_SLEEPING_TIME_NS = 1000 * 1000L;
+  // The default maximum time an export is allowed to run before being cancelled.
+  private static final long DEFAULT_EXPORT_TIMEOUT_MILLIS = 30_000;
+  // The default number of times a failed export is retried.
+  private static final int DEFAULT_MAX_RETRIES = 5;
+  // The default backoff before the first retry, doubled before every following one.
+  private static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 100;
+  // The default maximum backoff between two retries.
+  private static final long DEFAULT_MAX_BACKOFF_MILLIS = 5_000;
+  // The default maximum time flush and shutdown take before their result fails.
+  private static final long DEFAULT_CONTROL_TIMEOUT_MILLIS = 30_000;
+  private static final String WORKER_THREAD_NAME = "DisruptorSpanExporter_WorkerThread";
+
+  private final SpanExporter spanExporter;
+  private int bufferSize = DEFAULT_DISRUPTOR_BUFFER_SIZE;
+  private long blockingTimeoutNanos = 0;
+  private WaitStrategy waitStrategy =
+      new SleepingWaitStrategy(DEFAULT_NUM_RETRIES, DEFAULT_SLEEPING_TIME_NS);
+  @Nullable private ThreadFactory threadFactory = null;
+  private long exporterTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_EXPORT_TIMEOUT_MILLIS);
+  private int maxRetries = DEFAULT_MAX_RETRIES;
+  private long initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_INITIAL_BACKOFF_MILLIS);
+  private long maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_BACKOFF_MILLIS);
+  private long controlTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_CONTROL_TIMEOUT_MILLIS);
+
+  DisruptorSpanExporterBuilder(SpanExporter spanExporter) {
+    this.spanExporter = spanExporter;
+  }
+
+  /**
+   * Sets the number of batches the Disruptor's ring buffer holds. Defaults to {@code 64}.
+   *
+   * @param bufferSize the number of batches in the Disruptor ring buffer.
+   * @return this.
+   */
+  public DisruptorSpanExporterBuilder setBufferSize(int bufferSize) {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("bufferSize must be positive");
+    }
+    this.bufferSize = bufferSize;
+    return this;
+  }
+
+  /**
+   * Sets the maximum time {@code export} waits for a free slot when the Disruptor's ring buffer is
+   * full. Once the timeout elapses the batch is dropped and the result of {@code export} fails. A
+   * timeout of {@code 0}, the default, drops the batch right away.
+   *
+   * @param timeout the maximum time to wait for a free slot.
+   * @param unit the unit of {@code timeout}.
+   * @return this.
+   */
+  public DisruptorSpanExporterBuilder setBlockingTimeout(long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout must be non-negative");
+    }
+    this.blockingTimeoutNanos = unit.toNanos(timeout);
+    return this;
+  }
+
+  /**
+   * Sets the {@code WaitStrategy} for the Disruptor's worker thread.
+   *
+   * @param waitingStrategy the {@code WaitStrategy} for the Disruptor's worker thread.
+   * @return this.
+   */
+  public DisruptorSpanExporterBuilder setWaitingStrategy(WaitStrategy waitingStrategy) {
+    this.waitStrategy = Objects.requireNonNull(waitingStrategy, "waitingStrategy");
+    return this;
+  }
+
+  /**
+   * Sets the {@code ThreadFactory} creating the worker thread. By default the worker is a platform
+   * daemon thread.
+   *
+   * @param threadFactory the {@code ThreadFactory} creating the worker thread.
+   * @return this.
+   */
+  public DisruptorSpanExporterBuilder setThreadFactory(ThreadFactory threadFactory) {
+    this.threadFactory = Objects.requireNonNull(threadFactory, "threadFactory");
+    return this;
+  }
+
+  /**
+   * Sets the maximum time an export attempt will be allowed to run before being considered failed.
+   * A timeout of {@code 0} waits for every export attempt to complete. Defaults to 30 seconds.
+   *
+   * @param timeout the maximum time an export attempt will be allowed to run.
+   * @param unit the unit of {@code timeout}.
+   * @return this.
+   */
+  public DisruptorSpanExporterBuilder setExporterTimeout(long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout must be non-negative");
+    }
+    this.exporterTimeoutNanos = timeout == 0 ? Long.MAX_VALUE : unit.toNanos(timeout);
+    return this;
+  }
+
+  /**
+   * Sets the number of times a failed export is retried before the batch is dropped. A value of
+   * {@code 0} never retries. Defaults to {@code 5}.
+   *
+   * @param maxRetries the maximum number of retries of a batch.
+   * @return this.
+   */
+  public DisruptorSpanExporterBuilder setMaxRetries(int maxRetries) {
+    if (maxRetries < 0) {
+      throw new IllegalArgumentException("maxRetries must be non-negative");
+    }
+    this.maxRetries = maxRetries;
+    return this;
+  }
+
+  /**
+   * Sets the backoff before the first retry of a failed export, and the maximum backoff. The
+   * backoff doubles before every following retry, up to the maximum. Default to 100 milliseconds
+   * and 5 seconds.
+   *
+   * @param initialBackoff the backoff before the first retry.
+   * @param maxBackoff the maximum backoff between two retries.
+   * @param unit the unit of {@code initialBackoff} and {@code maxBackoff}.
+   * @return this.
+   */
+  public DisruptorSpanExporterBuilder setRetryBackoff(
+      long initialBackoff, long maxBackoff, TimeUnit unit) {
+    if (initialBackoff <= 0 || maxBackoff < initialBackoff) {
+      throw new IllegalArgumentException(
+          "initialBackoff must be positive and maxBackoff must not be less than initialBackoff");
+    }
+    this.initialBackoffNanos = unit.toNanos(initialBackoff);
+    this.maxBackoffNanos = unit.toNanos(maxBackoff);
+    return this;
+  }
+
+  /**
+   * Sets the maximum time {@code flush} and {@code shutdown} take to complete, after which their
+   * result fails. A timeout of {@code 0} never fails the result. Defaults to 30 seconds.
+   *
+   * @param timeout the maximum time to flush or shut down.
+   * @param unit the unit of {@code timeout}.
+   * @return this.
+   */
+  public DisruptorSpanExporterBuilder setControlTimeout(long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout must be non-negative");
+    }
+    this.controlTimeoutNanos = timeout == 0 ? Long.MAX_VALUE : unit.toNanos(timeout);
+    return this;
+  }
+
+  /**
+   * Returns a new {@link DisruptorSpanExporter}.
+   *
+   * @return a new {@link DisruptorSpanExporter}.
+   */
+  public DisruptorSpanExporter build() {
+    return new DisruptorSpanExporter(
+        spanExporter,
+        bufferSize,
+        waitStrategy,
+        threadFactory != null ? threadFactory : new DaemonThreadFactory(WORKER_THREAD_NAME),
+        blockingTimeoutNanos,
+        exporterTimeoutNanos,
+        maxRetries,
+        initialBackoffNanos,
+        maxBackoffNanos,
+        controlTimeoutNanos);
+  }
+}
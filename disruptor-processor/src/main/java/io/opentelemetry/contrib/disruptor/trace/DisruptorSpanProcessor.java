@@ -10,7 +10,9 @@ import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.trace.ReadWriteSpan;
 import io.opentelemetry.sdk.trace.ReadableSpan;
 import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
 import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * A {@link SpanProcessor} implementation that uses {@code Disruptor} to execute all the hooks on a
@@ -18,9 +20,11 @@ import java.util.Objects;
  */
 public final class DisruptorSpanProcessor implements SpanProcessor {
 
-  private final DisruptorEventQueue disruptorEventQueue;
+  private final EventQueue eventQueue;
   private final boolean startRequired;
   private final boolean endRequired;
+  // Invoked on the caller thread instead of enqueueing start events, null if starts are enqueued.
+  @Nullable private final SpanProcessor synchronousStartProcessor;
 
   /**
    * Returns a new Builder for {@link DisruptorSpanProcessor}.
@@ -30,17 +34,33 @@ public final class DisruptorSpanProcessor implements SpanProcessor {
    * @throws NullPointerException if the {@code spanProcessor} is {@code null}.
    */
   public static DisruptorSpanProcessorBuilder builder(SpanProcessor spanProcessor) {
-    return new DisruptorSpanProcessorBuilder(Objects.requireNonNull(spanProcessor));
+    return new DisruptorSpanProcessorBuilder(Objects.requireNonNull(spanProcessor), null);
   }
 
-  // TODO: Add metrics for dropped spans.
+  /**
+   * Returns a new Builder for a {@link DisruptorSpanProcessor} that exports the ended spans
+   * directly. Ended spans are gathered on the Disruptor's worker thread and passed to the {@code
+   * spanExporter} whenever the ring buffer has no more events available or the maximum export batch
+   * size is reached.
+   *
+   * @param spanExporter the {@code SpanExporter} to where the ended Spans are pushed.
+   * @return a new {@link DisruptorSpanProcessorBuilder}.
+   * @throws NullPointerException if the {@code spanExporter} is {@code null}.
+   */
+  public static DisruptorSpanProcessorBuilder exporterBuilder(SpanExporter spanExporter) {
+    return new DisruptorSpanProcessorBuilder(null, Objects.requireNonNull(spanExporter));
+  }
 
   @Override
   public void onStart(Context parentContext, ReadWriteSpan span) {
     if (!startRequired) {
       return;
     }
-    disruptorEventQueue.enqueueStartEvent(span, parentContext);
+    if (synchronousStartProcessor != null) {
+      synchronousStartProcessor.onStart(parentContext, span);
+      return;
+    }
+    eventQueue.enqueueStartEvent(span, parentContext);
   }
 
   @Override
@@ -53,7 +73,7 @@ public final class DisruptorSpanProcessor implements SpanProcessor {
     if (!endRequired) {
       return;
     }
-    disruptorEventQueue.enqueueEndEvent(span);
+    eventQueue.enqueueEndEvent(span);
   }
 
   @Override
@@ -63,18 +83,22 @@ public final class DisruptorSpanProcessor implements SpanProcessor {
 
   @Override
   public CompletableResultCode shutdown() {
-    return disruptorEventQueue.shutdown();
+    return eventQueue.shutdown();
   }
 
   @Override
   public CompletableResultCode forceFlush() {
-    return disruptorEventQueue.forceFlush();
+    return eventQueue.forceFlush();
   }
 
   DisruptorSpanProcessor(
-      DisruptorEventQueue disruptorEventQueue, boolean startRequired, boolean endRequired) {
-    this.disruptorEventQueue = disruptorEventQueue;
+      EventQueue eventQueue,
+      boolean startRequired,
+      boolean endRequired,
+      @Nullable SpanProcessor synchronousStartProcessor) {
+    this.eventQueue = eventQueue;
     this.startRequired = startRequired;
     this.endRequired = endRequired;
+    this.synchronousStartProcessor = synchronousStartProcessor;
   }
 }
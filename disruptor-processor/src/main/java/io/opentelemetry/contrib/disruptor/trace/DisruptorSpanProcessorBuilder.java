@@ -5,9 +5,24 @@
 
 package io.opentelemetry.contrib.disruptor.trace;
 
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.LiteBlockingWaitStrategy;
+import com.lmax.disruptor.LiteTimeoutBlockingWaitStrategy;
 import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
 import com.lmax.disruptor.WaitStrategy;
+import io.opentelemetry.api.metrics.MeterProvider;
+import io.opentelemetry.sdk.internal.DaemonThreadFactory;
+import io.opentelemetry.sdk.trace.ReadableSpan;
 import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /** Builder for {@link DisruptorSpanProcessor}. */
 public final class DisruptorSpanProcessorBuilder {
@@ -21,15 +36,42 @@ public final class DisruptorSpanProcessorBuilder {
   private static final int DEFAULT_NUM_RETRIES = 0;
   // The default waiting time in ns for the SleepingWaitingStrategy.
   private static final long DEFAULT_SLEEPING_TIME_NS = 1000 * 1000L;
+  // The default maximum number of spans handed to the SpanExporter in a single call.
+  private static final int DEFAULT_MAX_EXPORT_BATCH_SIZE = 512;
+  // The default maximum time an export is allowed to run before being cancelled.
+  private static final long DEFAULT_EXPORT_TIMEOUT_MILLIS = 30_000;
+  // The default maximum time forceFlush and shutdown take before their result fails.
+  private static final long DEFAULT_CONTROL_TIMEOUT_MILLIS = 30_000;
 
-  private final SpanProcessor spanProcessor;
+  @Nullable private final SpanProcessor spanProcessor;
+  @Nullable private final SpanExporter spanExporter;
   private int bufferSize = DEFAULT_DISRUPTOR_BUFFER_SIZE;
   private boolean blocking = DEFAULT_BLOCKING;
+  private long blockingTimeoutNanos = 0;
+  private double startEventHighWaterMark = 1.0;
+  private boolean synchronousStart = false;
   private WaitStrategy waitStrategy =
       new SleepingWaitStrategy(DEFAULT_NUM_RETRIES, DEFAULT_SLEEPING_TIME_NS);
+  private int maxExportBatchSize = DEFAULT_MAX_EXPORT_BATCH_SIZE;
+  private long exporterTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_EXPORT_TIMEOUT_MILLIS);
+  private MeterProvider meterProvider = MeterProvider.noop();
+  private boolean recordQueueWaitTime = false;
+  private int shardCount = 1;
+  private boolean perThreadRingBuffers = false;
+  private int priorityBufferSize = 0;
+  @Nullable private Predicate<ReadableSpan> priorityPredicate = null;
+  private int offHeapRecordSize = 0;
+  private int maxPendingTraces = 0;
+  private long coalescingTimeoutNanos = 0;
+  @Nullable private ThreadFactory threadFactory = null;
+  private long controlTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_CONTROL_TIMEOUT_MILLIS);
+  private final List<SpanProcessor> additionalSpanProcessors = new ArrayList<>();
+  private final List<List<SpanProcessor>> additionalStages = new ArrayList<>();
 
-  DisruptorSpanProcessorBuilder(SpanProcessor spanProcessor) {
+  DisruptorSpanProcessorBuilder(
+      @Nullable SpanProcessor spanProcessor, @Nullable SpanExporter spanExporter) {
     this.spanProcessor = spanProcessor;
+    this.spanExporter = spanExporter;
   }
 
   /**
@@ -43,6 +85,78 @@ public final class DisruptorSpanProcessorBuilder {
     return this;
   }
 
+  /**
+   * Sets the maximum time to wait for a free slot when the Disruptor's ring buffer is full and
+   * blocking is enabled. Once the timeout elapses the event is dropped and counted, so application
+   * threads never hang behind a stuck {@code SpanProcessor} while short bursts are still absorbed.
+   * A timeout of {@code 0}, the default, waits indefinitely.
+   *
+   * @param timeout the maximum time to wait for a free slot.
+   * @param unit the unit of {@code timeout}.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setBlockingTimeout(long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout must be non-negative");
+    }
+    this.blockingTimeoutNanos = unit.toNanos(timeout);
+    return this;
+  }
+
+  /**
+   * Sets the ring buffer occupancy, as a fraction of {@code bufferSize}, above which span start
+   * events are skipped rather than enqueued. Skipped start events are counted by the {@code
+   * MeterProvider} set on this builder. The slots above the high-water mark stay free for the end
+   * events, so that a burst of span starts does not take the capacity the end events need. With
+   * per-thread ring buffers or shards, the mark applies to each ring buffer. A mark of {@code 1},
+   * the default, never skips start events.
+   *
+   * @param startEventHighWaterMark the occupancy above which start events are skipped, in {@code
+   *     (0, 1]}.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setStartEventHighWaterMark(double startEventHighWaterMark) {
+    if (!(startEventHighWaterMark > 0 && startEventHighWaterMark <= 1)) {
+      throw new IllegalArgumentException("startEventHighWaterMark must be in (0, 1]");
+    }
+    this.startEventHighWaterMark = startEventHighWaterMark;
+    return this;
+  }
+
+  /**
+   * If {@code true} the {@code onStart} hook of the {@code SpanProcessor}s is invoked on the thread
+   * starting the span instead of on a worker thread, and only the end events are enqueued. This
+   * halves the ring buffer traffic of processors that require both the start and the end of the
+   * spans, such as span metrics generators, but is only appropriate when their {@code onStart} is
+   * cheap and thread safe. Defaults to {@code false}.
+   *
+   * @param synchronousStart {@code true} to invoke {@code onStart} on the caller thread.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setSynchronousStart(boolean synchronousStart) {
+    this.synchronousStart = synchronousStart;
+    return this;
+  }
+
+  /**
+   * Sets the maximum time {@code forceFlush} and {@code shutdown} take to complete, after which
+   * their result fails. Both calls return right away: they are not published on the ring buffer,
+   * so they never wait for a free slot nor get dropped, and are executed by the worker thread once
+   * it has processed the span events enqueued before the call. A timeout of {@code 0} never fails
+   * the result. Defaults to 30 seconds.
+   *
+   * @param timeout the maximum time to flush or shut down.
+   * @param unit the unit of {@code timeout}.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setControlTimeout(long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout must be non-negative");
+    }
+    this.controlTimeoutNanos = timeout == 0 ? Long.MAX_VALUE : unit.toNanos(timeout);
+    return this;
+  }
+
   /**
    * Sets the buffer size for the Disruptor's ring buffer.
    *
@@ -58,7 +172,9 @@ public final class DisruptorSpanProcessorBuilder {
   }
 
   /**
-   * Sets the {@code WaitStrategy} for the Disruptor's worker thread.
+   * Sets the {@code WaitStrategy} for the Disruptor's worker thread. Use {@link
+   * AdaptiveWaitStrategy} to adapt the waiting to the arrival rate of the spans; its spin, yield
+   * and park counts are then recorded by the {@code MeterProvider} set on this builder.
    *
    * @param waitingStrategy the {@code WaitStrategy} for the Disruptor's worker thread.
    * @return this.
@@ -68,15 +184,401 @@ public final class DisruptorSpanProcessorBuilder {
     return this;
   }
 
+  /**
+   * Sets the {@code ThreadFactory} creating the worker threads. {@link DisruptorThreadFactories}
+   * offers factories pinning the workers to a set of CPUs or running them on virtual threads. By
+   * default the workers are platform daemon threads.
+   *
+   * @param threadFactory the {@code ThreadFactory} creating the worker threads.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setThreadFactory(ThreadFactory threadFactory) {
+    this.threadFactory = Objects.requireNonNull(threadFactory, "threadFactory");
+    return this;
+  }
+
+  /**
+   * Sets the number of ring buffers, each with its own worker thread, the span events are spread
+   * over. Events are routed by trace ID, so the events of a span are always processed in order by
+   * the same worker. With more than one shard the {@code SpanProcessor} is invoked concurrently and
+   * must be thread safe, and {@code bufferSize} applies to each shard. Defaults to {@code 1}.
+   *
+   * <p>Sharding reduces the contention between producers on many-core hosts and removes the single
+   * worker thread as a throughput ceiling. It is not supported together with {@link
+   * DisruptorSpanProcessor#exporterBuilder(SpanExporter)}, as span exporters must not be called
+   * concurrently.
+   *
+   * @param shardCount the number of ring buffers.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setShardCount(int shardCount) {
+    if (shardCount <= 0) {
+      throw new IllegalArgumentException("shardCount must be positive");
+    }
+    this.shardCount = shardCount;
+    return this;
+  }
+
+  /**
+   * If {@code true} every application thread publishes on its own single-producer ring buffer,
+   * created lazily on first use, instead of all the threads sharing one multi-producer ring buffer.
+   * Publishing then needs no CAS on a shared cursor, which lowers the latency of {@code onStart}
+   * and {@code onEnd} when many threads end spans concurrently. A single worker thread polls all
+   * the ring buffers, backing off by spinning, yielding and then parking when they are empty; the
+   * {@code WaitStrategy} is not used in this mode. Defaults to {@code false}.
+   *
+   * <p>{@code bufferSize} applies to each thread's ring buffer, so a smaller size than in the
+   * shared mode is usually appropriate. Can not be combined with {@link #setShardCount(int)}.
+   *
+   * @param perThreadRingBuffers {@code true} to give every thread its own ring buffer.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setPerThreadRingBuffers(boolean perThreadRingBuffers) {
+    this.perThreadRingBuffers = perThreadRingBuffers;
+    return this;
+  }
+
+  /**
+   * Sets the buffer size of the priority lane, a second ring buffer reserved for the end events of
+   * the spans matching the predicate set with {@link #setPriorityPredicate(Predicate)}, which is
+   * required with a positive size. The worker thread drains the priority lane before every other
+   * event, so these spans are neither delayed behind nor dropped with a backlog of ordinary spans.
+   * A size of {@code 0}, the default, disables the priority lane.
+   *
+   * <p>The priority lane only carries end events, which may therefore be processed before the start
+   * event of the same span if that is still queued. It can not be combined with {@link
+   * #setPerThreadRingBuffers(boolean)}.
+   *
+   * @param priorityBufferSize the buffer size of the priority ring buffer, or {@code 0}.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setPriorityBufferSize(int priorityBufferSize) {
+    if (priorityBufferSize < 0) {
+      throw new IllegalArgumentException("priorityBufferSize must be non-negative");
+    }
+    this.priorityBufferSize = priorityBufferSize;
+    return this;
+  }
+
+  /**
+   * Sets the predicate selecting the ended spans published on the priority lane. It is evaluated on
+   * the thread ending the span and must be cheap, for instance by reading {@link
+   * ReadableSpan#getName()} or {@link ReadableSpan#getKind()} rather than taking a snapshot with
+   * {@link ReadableSpan#toSpanData()}. There is no default, as {@link ReadableSpan} does not expose
+   * the status of a span without a snapshot. Required when {@link #setPriorityBufferSize(int)} is
+   * positive.
+   *
+   * @param priorityPredicate the predicate selecting the spans of the priority lane.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setPriorityPredicate(
+      Predicate<ReadableSpan> priorityPredicate) {
+    this.priorityPredicate = Objects.requireNonNull(priorityPredicate, "priorityPredicate");
+    return this;
+  }
+
+  /**
+   * Sets the size in bytes of the off-heap slot every ended span is encoded into. When positive,
+   * {@code onEnd} snapshots the span and encodes it into a preallocated direct buffer of {@code
+   * bufferSize} slots, and the worker thread decodes it just before exporting. Queued spans then no
+   * longer keep the live spans, with their attributes, events and links, reachable on the heap,
+   * which allows deep buffers without growing the heap. Spans that do not fit in a slot are queued
+   * as usual. A size of {@code 0}, the default, disables the encoding.
+   *
+   * <p>Only supported by processors created with {@link
+   * DisruptorSpanProcessor#exporterBuilder(SpanExporter)}, and not together with {@link
+   * #setPerThreadRingBuffers(boolean)}.
+   *
+   * @param offHeapRecordSize the size in bytes of an encoded span, or {@code 0}.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setOffHeapRecordSize(int offHeapRecordSize) {
+    if (offHeapRecordSize < 0) {
+      throw new IllegalArgumentException("offHeapRecordSize must be non-negative");
+    }
+    this.offHeapRecordSize = offHeapRecordSize;
+    return this;
+  }
+
+  /**
+   * Groups the ended spans by trace before exporting them. A group is handed to the {@code
+   * SpanExporter} once the local root span of its trace ended, that is the span without a parent
+   * or with a remote one, or once the timeout passed since its first span ended. The spans of a
+   * group are exported in the same call, so exporters, including tail-sampling ones, see whole
+   * local traces and compress them better. At most {@code maxPendingTraces} groups are held; when
+   * a new trace arrives beyond that, the oldest group is exported early, as is a group reaching the
+   * maximum export batch size. A {@code maxPendingTraces} of {@code 0}, the default, disables the
+   * grouping.
+   *
+   * <p>Only supported by processors created with {@link
+   * DisruptorSpanProcessor#exporterBuilder(SpanExporter)}, and not together with {@link
+   * #setPerThreadRingBuffers(boolean)}.
+   *
+   * @param maxPendingTraces the maximum number of traces held at once, or {@code 0}.
+   * @param timeout the maximum time a trace is held.
+   * @param unit the unit of {@code timeout}.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setTraceCoalescing(
+      int maxPendingTraces, long timeout, TimeUnit unit) {
+    if (maxPendingTraces < 0) {
+      throw new IllegalArgumentException("maxPendingTraces must be non-negative");
+    }
+    if (timeout <= 0) {
+      throw new IllegalArgumentException("timeout must be positive");
+    }
+    this.maxPendingTraces = maxPendingTraces;
+    this.coalescingTimeoutNanos = unit.toNanos(timeout);
+    return this;
+  }
+
+  /**
+   * Adds a {@code SpanProcessor} that receives the same span events as the one this builder was
+   * created with. Every processor is run by its own worker thread on the same ring buffer, with its
+   * own gating sequence, so a slow processor, such as an exporter, does not delay the others; the
+   * ring buffer is full when the slowest processor falls {@code bufferSize} events behind.
+   *
+   * <p>Can not be combined with {@link #setShardCount(int)}, {@link
+   * #setPerThreadRingBuffers(boolean)}, {@link #setPriorityBufferSize(int)} or {@link
+   * #setOffHeapRecordSize(int)}.
+   *
+   * @param spanProcessor the additional {@code SpanProcessor}.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder addSpanProcessor(SpanProcessor spanProcessor) {
+    additionalSpanProcessors.add(Objects.requireNonNull(spanProcessor, "spanProcessor"));
+    return this;
+  }
+
+  /**
+   * Adds a stage of {@code SpanProcessor}s that receive every span event after all the processors
+   * of the previous stage processed it. The first stage holds the processor this builder was
+   * created with and the ones added with {@link #addSpanProcessor(SpanProcessor)}. Every processor
+   * is run by its own worker thread, so the processors of a stage run in parallel and consecutive
+   * stages form a pipeline; for example, spans can be enriched and redacted in a first stage and
+   * then exported while span metrics are computed in a second one. The slots of the ring buffer
+   * are freed once the last stage processed them.
+   *
+   * <p>Has the same restrictions as {@link #addSpanProcessor(SpanProcessor)}.
+   *
+   * @param spanProcessors the {@code SpanProcessor}s of the stage.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder addStage(SpanProcessor... spanProcessors) {
+    if (spanProcessors.length == 0) {
+      throw new IllegalArgumentException("a stage needs at least one spanProcessor");
+    }
+    List<SpanProcessor> stage = new ArrayList<>(spanProcessors.length);
+    for (SpanProcessor spanProcessor : spanProcessors) {
+      stage.add(Objects.requireNonNull(spanProcessor, "spanProcessor"));
+    }
+    additionalStages.add(stage);
+    return this;
+  }
+
+  /**
+   * Sets the {@code MeterProvider} used to record the number of dropped events and the state of the
+   * Disruptor's ring buffer. If not set, no metrics are recorded.
+   *
+   * @param meterProvider the {@code MeterProvider} used to record metrics.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setMeterProvider(MeterProvider meterProvider) {
+    this.meterProvider = Objects.requireNonNull(meterProvider, "meterProvider");
+    return this;
+  }
+
+  /**
+   * If {@code true} records how long every span event waited in the ring buffer before the worker
+   * thread processed it, and reports the 50th, 90th, 99th and 99.9th percentiles and the maximum of
+   * the waits since the previous collection as the {@code disruptor.span_processor.queue_wait_time}
+   * gauge of the {@code MeterProvider} set on this builder. This is the main signal for tuning the
+   * buffer size and the wait strategy. The worker records into a histogram without allocating or
+   * synchronizing. Defaults to {@code false}.
+   *
+   * @param recordQueueWaitTime {@code true} to record the queue wait time.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setRecordQueueWaitTime(boolean recordQueueWaitTime) {
+    this.recordQueueWaitTime = recordQueueWaitTime;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of ended spans handed to the {@code SpanExporter} in a single call.
+   * Only used by processors created with {@link
+   * DisruptorSpanProcessor#exporterBuilder(SpanExporter)}.
+   *
+   * @param maxExportBatchSize the maximum number of spans exported at once.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setMaxExportBatchSize(int maxExportBatchSize) {
+    if (maxExportBatchSize <= 0) {
+      throw new IllegalArgumentException("maxExportBatchSize must be positive");
+    }
+    this.maxExportBatchSize = maxExportBatchSize;
+    return this;
+  }
+
+  /**
+   * Sets the maximum time an export will be allowed to run before being cancelled. Only used by
+   * processors created with {@link DisruptorSpanProcessor#exporterBuilder(SpanExporter)}.
+   *
+   * @param timeout the maximum time an export will be allowed to run.
+   * @param unit the unit of {@code timeout}.
+   * @return this.
+   */
+  public DisruptorSpanProcessorBuilder setExporterTimeout(long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout must be non-negative");
+    }
+    this.exporterTimeoutNanos = unit.toNanos(timeout);
+    return this;
+  }
+
   /**
    * Returns a new {@link DisruptorSpanProcessor}.
    *
    * @return a new {@link DisruptorSpanProcessor}.
    */
   public DisruptorSpanProcessor build() {
+    if (spanExporter != null && shardCount > 1) {
+      throw new IllegalStateException("shardCount can not be used with a SpanExporter");
+    }
+    if (perThreadRingBuffers && shardCount > 1) {
+      throw new IllegalStateException("shardCount can not be used with per-thread ring buffers");
+    }
+    if (perThreadRingBuffers && priorityBufferSize > 0) {
+      throw new IllegalStateException(
+          "priorityBufferSize can not be used with per-thread ring buffers");
+    }
+    if (priorityBufferSize > 0 && priorityPredicate == null) {
+      throw new IllegalStateException("priorityBufferSize requires a priorityPredicate");
+    }
+    if (offHeapRecordSize > 0 && (spanExporter == null || perThreadRingBuffers)) {
+      throw new IllegalStateException(
+          "offHeapRecordSize can only be used with a SpanExporter and a shared ring buffer");
+    }
+    if (maxPendingTraces > 0 && (spanExporter == null || perThreadRingBuffers)) {
+      throw new IllegalStateException(
+          "trace coalescing can only be used with a SpanExporter and a shared ring buffer");
+    }
+    if ((!additionalSpanProcessors.isEmpty() || !additionalStages.isEmpty())
+        && (shardCount > 1
+            || perThreadRingBuffers
+            || priorityBufferSize > 0
+            || offHeapRecordSize > 0)) {
+      throw new IllegalStateException(
+          "additional SpanProcessors and stages can only be used with a single shared ring buffer");
+    }
+    // A spinning or yielding virtual thread would monopolize its carrier thread.
+    if (threadFactory instanceof DisruptorThreadFactories.VirtualThreadFactory
+        && !perThreadRingBuffers
+        && !parks(waitStrategy)) {
+      throw new IllegalStateException("virtual threads require a WaitStrategy that parks");
+    }
+    SpanProcessor delegate =
+        spanExporter != null
+            ? new BatchExportingSpanProcessor(
+                spanExporter,
+                maxExportBatchSize,
+                exporterTimeoutNanos,
+                maxPendingTraces,
+                coalescingTimeoutNanos)
+            : Objects.requireNonNull(spanProcessor);
+    List<SpanProcessor> firstStage = new ArrayList<>(additionalSpanProcessors.size() + 1);
+    firstStage.add(delegate);
+    firstStage.addAll(additionalSpanProcessors);
+    List<List<SpanProcessor>> stages = new ArrayList<>(additionalStages.size() + 1);
+    stages.add(firstStage);
+    stages.addAll(additionalStages);
+    boolean endRequired = false;
+    List<SpanProcessor> startProcessors = new ArrayList<>();
+    for (List<SpanProcessor> stage : stages) {
+      for (SpanProcessor processor : stage) {
+        if (processor.isStartRequired()) {
+          startProcessors.add(processor);
+        }
+        endRequired |= processor.isEndRequired();
+      }
+    }
+    boolean startRequired = !startProcessors.isEmpty();
+    // In stage order, as the start events would have been processed.
+    SpanProcessor synchronousStartProcessor =
+        synchronousStart && startRequired ? SpanProcessor.composite(startProcessors) : null;
+    // 0 drops events right away and Long.MAX_VALUE waits indefinitely for a free slot.
+    long timeoutNanos = 0;
+    if (blocking) {
+      timeoutNanos = blockingTimeoutNanos > 0 ? blockingTimeoutNanos : Long.MAX_VALUE;
+    }
+    // The number of free slots below which start events are skipped, 0 never skips them.
+    int startEventHeadroom = bufferSize - (int) (bufferSize * startEventHighWaterMark);
+    ThreadFactory workerThreadFactory =
+        threadFactory != null
+            ? threadFactory
+            : new DaemonThreadFactory(DisruptorThreadFactories.WORKER_THREAD_NAME);
+    // No span is prioritised when the priority lane is disabled.
+    Predicate<ReadableSpan> priorityPredicate =
+        this.priorityPredicate != null ? this.priorityPredicate : span -> false;
+    DisruptorMetrics metrics = new DisruptorMetrics(meterProvider, recordQueueWaitTime);
+    EventQueue eventQueue;
+    if (perThreadRingBuffers) {
+      eventQueue =
+          new PerThreadEventQueue(
+              bufferSize,
+              workerThreadFactory,
+              delegate,
+              timeoutNanos,
+              startEventHeadroom,
+              controlTimeoutNanos,
+              metrics);
+    } else if (shardCount > 1) {
+      eventQueue =
+          new ShardedEventQueue(
+              shardCount,
+              bufferSize,
+              waitStrategy,
+              workerThreadFactory,
+              delegate,
+              timeoutNanos,
+              startEventHeadroom,
+              priorityBufferSize,
+              priorityPredicate,
+              controlTimeoutNanos,
+              metrics);
+    } else {
+      eventQueue =
+          new DisruptorEventQueue(
+              bufferSize,
+              waitStrategy,
+              workerThreadFactory,
+              stages,
+              timeoutNanos,
+              startEventHeadroom,
+              priorityBufferSize,
+              priorityPredicate,
+              offHeapRecordSize > 0 ? new SpanRecordBuffer(bufferSize, offHeapRecordSize) : null,
+              controlTimeoutNanos,
+              maxPendingTraces > 0 ? coalescingTimeoutNanos : Long.MAX_VALUE,
+              metrics);
+    }
+    metrics.registerQueueGauges(eventQueue);
+    metrics.registerQueueWaitTimeGauge();
+    if (!perThreadRingBuffers && waitStrategy instanceof AdaptiveWaitStrategy) {
+      metrics.registerWaitStrategyCounter((AdaptiveWaitStrategy) waitStrategy);
+    }
     return new DisruptorSpanProcessor(
-        new DisruptorEventQueue(bufferSize, waitStrategy, spanProcessor, blocking),
-        spanProcessor.isStartRequired(),
-        spanProcessor.isEndRequired());
+        eventQueue, startRequired, endRequired, synchronousStartProcessor);
+  }
+
+  // Whether the strategy is known to park an idle worker. Strategies that spin or yield, such as
+  // the BusySpin, Yielding and PhasedBackoff strategies, and custom strategies are not.
+  private static boolean parks(WaitStrategy waitStrategy) {
+    return waitStrategy instanceof SleepingWaitStrategy
+        || waitStrategy instanceof AdaptiveWaitStrategy
+        || waitStrategy instanceof BlockingWaitStrategy
+        || waitStrategy instanceof LiteBlockingWaitStrategy
+        || waitStrategy instanceof TimeoutBlockingWaitStrategy
+        || waitStrategy instanceof LiteTimeoutBlockingWaitStrategy;
   }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import io.opentelemetry.sdk.internal.DaemonThreadFactory;
+import java.lang.reflect.Method;
+import java.util.BitSet;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * {@code ThreadFactory}s for the worker threads of the {@link DisruptorSpanProcessor}, to be passed
+ * to {@link DisruptorSpanProcessorBuilder#setThreadFactory(ThreadFactory)}.
+ */
+public final class DisruptorThreadFactories {
+  private static final Logger logger = Logger.getLogger(DisruptorThreadFactories.class.getName());
+  static final String WORKER_THREAD_NAME = "DisruptorEventQueue_WorkerThread";
+  private static final String AFFINITY_CLASS = "net.openhft.affinity.Affinity";
+  // A CPU list as accepted by taskset, for example "3" or "0,2,4-7".
+  private static final Pattern CPU_LIST =
+      Pattern.compile("\\d{1,5}(-\\d{1,5})?(,\\d{1,5}(-\\d{1,5})?)*");
+
+  /**
+   * Returns a {@code ThreadFactory} creating daemon worker threads that pin themselves to the given
+   * CPUs before running. Keeping the worker on the same cores reduces the cache misses of handing
+   * spans over from the application threads, which matters to latency-sensitive services; the
+   * CPUs are best isolated from the rest of the process.
+   *
+   * <p>Java has no API to set the affinity of a thread, so the pinning is done with the {@code
+   * net.openhft:affinity} library, which calls {@code sched_setaffinity} on Linux and must be on
+   * the class path. If pinning fails when a worker starts, the worker logs a warning and runs
+   * unpinned.
+   *
+   * @param cpuList the CPUs the worker may run on, for example {@code "3"} or {@code "0,2,4-7"}.
+   * @return a {@code ThreadFactory} creating pinned worker threads.
+   * @throws IllegalArgumentException if the CPU list is invalid.
+   * @throws UnsupportedOperationException if {@code net.openhft:affinity} is not on the class path.
+   */
+  public static ThreadFactory cpuAffinity(String cpuList) {
+    return cpuAffinity(cpuList, AFFINITY_CLASS);
+  }
+
+  // Pins with the static setAffinity(BitSet) method of the given class.
+  static ThreadFactory cpuAffinity(String cpuList, String affinityClass) {
+    BitSet cpus = parseCpuList(cpuList);
+    Method setAffinity;
+    try {
+      setAffinity = Class.forName(affinityClass).getMethod("setAffinity", BitSet.class);
+    } catch (ReflectiveOperationException e) {
+      throw new UnsupportedOperationException(
+          "CPU affinity requires net.openhft:affinity on the class path", e);
+    }
+    ThreadFactory delegate = new DaemonThreadFactory(WORKER_THREAD_NAME);
+    return runnable ->
+        delegate.newThread(
+            () -> {
+              try {
+                // Takes a copy, as the library may keep the set.
+                setAffinity.invoke(null, (BitSet) cpus.clone());
+              } catch (ReflectiveOperationException | RuntimeException e) {
+                logger.log(Level.WARNING, "Unable to set the CPU affinity, worker not pinned.", e);
+              }
+              runnable.run();
+            });
+  }
+
+  // Parses a CPU list in the format of taskset, for example "3" or "0,2,4-7".
+  static BitSet parseCpuList(String cpuList) {
+    if (!CPU_LIST.matcher(cpuList).matches()) {
+      throw new IllegalArgumentException("Invalid cpuList: " + cpuList);
+    }
+    BitSet cpus = new BitSet();
+    for (String range : cpuList.split(",", -1)) {
+      int dash = range.indexOf('-');
+      int first = Integer.parseInt(dash < 0 ? range : range.substring(0, dash));
+      int last = dash < 0 ? first : Integer.parseInt(range.substring(dash + 1));
+      if (last < first) {
+        throw new IllegalArgumentException("Invalid cpuList: " + cpuList);
+      }
+      cpus.set(first, last + 1);
+    }
+    return cpus;
+  }
+
+  /**
+   * Returns a {@code ThreadFactory} creating virtual worker threads, which avoids dedicating a
+   * platform thread to the worker in small containers. A virtual worker must not spin, so it can
+   * only be combined with a {@code WaitStrategy} that parks: the default {@code
+   * SleepingWaitStrategy}, {@link AdaptiveWaitStrategy}, or one of the blocking strategies of the
+   * Disruptor.
+   *
+   * @return a {@code ThreadFactory} creating virtual worker threads.
+   * @throws UnsupportedOperationException if the runtime does not support virtual threads.
+   */
+  public static ThreadFactory virtualThreads() {
+    // Virtual threads are only available from Java 21, so they are created reflectively.
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builder = builderClass.getMethod("name", String.class).invoke(builder, WORKER_THREAD_NAME);
+      return new VirtualThreadFactory(
+          (ThreadFactory) builderClass.getMethod("factory").invoke(builder));
+    } catch (ReflectiveOperationException e) {
+      throw new UnsupportedOperationException("Virtual threads are not supported", e);
+    }
+  }
+
+  // Marks the factories creating virtual threads, which the builder checks the wait strategy for.
+  static final class VirtualThreadFactory implements ThreadFactory {
+    private final ThreadFactory delegate;
+
+    VirtualThreadFactory(ThreadFactory delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      return delegate.newThread(runnable);
+    }
+  }
+
+  private DisruptorThreadFactories() {}
+}
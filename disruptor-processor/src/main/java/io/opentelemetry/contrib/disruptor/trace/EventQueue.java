@@ -0,0 +1,33 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+
+/** A queue that hands the span events to one or more background consumers. */
+interface EventQueue {
+
+  void enqueueStartEvent(ReadWriteSpan span, Context parentContext);
+
+  void enqueueEndEvent(ReadableSpan span);
+
+  // Completes once all the events enqueued before this call are processed and the delegate is
+  // flushed.
+  CompletableResultCode forceFlush();
+
+  // Completes once all the events enqueued before this call are processed and the delegate is shut
+  // down.
+  CompletableResultCode shutdown();
+
+  // Returns the number of free slots in the ring buffer(s).
+  long remainingCapacity();
+
+  // Returns the number of published events the consumer(s) have not yet processed.
+  long consumerLag();
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.EventPoller;
+import com.lmax.disruptor.RingBuffer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.contrib.disruptor.internal.ControlRequest;
+import io.opentelemetry.contrib.disruptor.trace.DisruptorEvent.EventType;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An {@link EventQueue} that gives every producer thread its own single-producer ring buffer,
+ * created lazily on first use. Publishing on a single-producer ring buffer does not need a CAS on
+ * a shared cursor, so producers never contend with each other. A single worker thread polls all the
+ * ring buffers and invokes the {@link SpanProcessor}, which therefore still sees every event from
+ * one thread.
+ *
+ * <p>Optionally, start events are skipped once fewer free slots than the start event headroom are
+ * left in the ring buffer of the producer thread.
+ *
+ * <p>Flush and shutdown requests are not published on the ring buffers. They record the cursor of
+ * every ring buffer at call time and are executed by the worker thread once it has processed the
+ * events up to those cursors. Their result fails once the control timeout elapses.
+ */
+final class PerThreadEventQueue implements EventQueue {
+  private static final Logger logger = Logger.getLogger(PerThreadEventQueue.class.getName());
+  // Number of empty polling rounds the worker spins, and then yields, before it starts parking.
+  private static final int SPIN_TRIES = 100;
+  private static final int YIELD_TRIES = 100;
+  // Time the worker parks for once it is idle.
+  private static final long PARK_NANOS = 100_000L;
+
+  private final int bufferSize;
+  private final long blockingTimeoutNanos;
+  private final int startEventHeadroom;
+  private final long controlTimeoutNanos;
+  private final SpanProcessor spanProcessor;
+  private final DisruptorMetrics metrics;
+  private final DisruptorEventHandler eventHandler;
+  private final EventPoller.Handler<DisruptorEvent> pollerHandler;
+  private final ThreadLocal<ProducerRing> producerRing =
+      ThreadLocal.withInitial(this::newProducerRing);
+  private final ConcurrentLinkedQueue<PendingRequest> pendingRequests =
+      new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean loggedShutdownMessage = new AtomicBoolean(false);
+  private final Thread workerThread;
+  private volatile ProducerRing[] producerRings = new ProducerRing[0];
+  private volatile boolean isShutdown = false;
+
+  PerThreadEventQueue(
+      int bufferSize,
+      ThreadFactory threadFactory,
+      SpanProcessor spanProcessor,
+      long blockingTimeoutNanos,
+      int startEventHeadroom,
+      long controlTimeoutNanos,
+      DisruptorMetrics metrics) {
+    this.bufferSize = bufferSize;
+    this.blockingTimeoutNanos = blockingTimeoutNanos;
+    this.startEventHeadroom = startEventHeadroom;
+    this.controlTimeoutNanos = controlTimeoutNanos;
+    this.spanProcessor = spanProcessor;
+    this.metrics = metrics;
+    this.eventHandler = new DisruptorEventHandler(spanProcessor, metrics.newQueueWaitHistogram());
+    // The end of batch is signalled once per polling round rather than once per ring buffer.
+    this.pollerHandler =
+        (event, sequence, endOfBatch) -> {
+          eventHandler.onEvent(event, sequence, false);
+          return true;
+        };
+    this.workerThread = threadFactory.newThread(this::run);
+    workerThread.start();
+  }
+
+  @Override
+  public void enqueueStartEvent(ReadWriteSpan span, Context parentContext) {
+    if (isShutdown) {
+      if (!loggedShutdownMessage.getAndSet(true)) {
+        logger.info("Attempted to enqueue start event after Disruptor shutdown.");
+      }
+      return;
+    }
+    RingBuffer<DisruptorEvent> ringBuffer = producerRing.get().ringBuffer;
+    if (startEventHeadroom > 0 && ringBuffer.remainingCapacity() < startEventHeadroom) {
+      metrics.recordShedStartEvent();
+      return;
+    }
+    publish(ringBuffer, EventType.ON_START, span, parentContext);
+  }
+
+  @Override
+  public void enqueueEndEvent(ReadableSpan span) {
+    if (isShutdown) {
+      if (!loggedShutdownMessage.getAndSet(true)) {
+        logger.info("Attempted to enqueue end event after Disruptor shutdown.");
+      }
+      return;
+    }
+    publish(producerRing.get().ringBuffer, EventType.ON_END, span, null);
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    synchronized (this) {
+      if (isShutdown) {
+        // Race condition between two calls to shutdown. The other call already finished.
+        return CompletableResultCode.ofSuccess();
+      }
+      isShutdown = true;
+      return enqueueControlRequest(/* isShutdown= */ true);
+    }
+  }
+
+  @Override
+  public CompletableResultCode forceFlush() {
+    if (isShutdown) {
+      if (!loggedShutdownMessage.getAndSet(true)) {
+        logger.info("Attempted to flush after Disruptor shutdown.");
+      }
+      return CompletableResultCode.ofFailure();
+    }
+    return enqueueControlRequest(/* isShutdown= */ false);
+  }
+
+  @Override
+  public long remainingCapacity() {
+    long remainingCapacity = 0;
+    for (ProducerRing ring : producerRings) {
+      remainingCapacity += ring.ringBuffer.remainingCapacity();
+    }
+    return remainingCapacity;
+  }
+
+  @Override
+  public long consumerLag() {
+    long consumerLag = 0;
+    for (ProducerRing ring : producerRings) {
+      consumerLag += ring.ringBuffer.getCursor() - ring.poller.getSequence().get();
+    }
+    return consumerLag;
+  }
+
+  private void publish(
+      RingBuffer<DisruptorEvent> ringBuffer,
+      EventType eventType,
+      ReadableSpan span,
+      @Nullable Context parentContext) {
+    if (!DisruptorEvent.publish(ringBuffer, blockingTimeoutNanos, eventType, span, parentContext)) {
+      metrics.recordDroppedEvent(eventType);
+    }
+  }
+
+  private CompletableResultCode enqueueControlRequest(boolean isShutdown) {
+    CompletableResultCode result = new CompletableResultCode();
+    ControlRequest.failAfter(result, controlTimeoutNanos);
+    pendingRequests.add(new PendingRequest(isShutdown, result, producerRings));
+    LockSupport.unpark(workerThread);
+    return result;
+  }
+
+  private ProducerRing newProducerRing() {
+    ProducerRing ring = new ProducerRing(bufferSize);
+    synchronized (this) {
+      ProducerRing[] rings = Arrays.copyOf(producerRings, producerRings.length + 1);
+      rings[rings.length - 1] = ring;
+      producerRings = rings;
+    }
+    return ring;
+  }
+
+  private void removeProducerRing(ProducerRing ring) {
+    synchronized (this) {
+      List<ProducerRing> rings = new ArrayList<>(Arrays.asList(producerRings));
+      rings.remove(ring);
+      producerRings = rings.toArray(new ProducerRing[0]);
+    }
+  }
+
+  private void run() {
+    int idleRounds = 0;
+    while (true) {
+      boolean processed = pollProducerRings();
+      PendingRequest request = pendingRequests.peek();
+      if (request != null && request.isReached()) {
+        pendingRequests.poll();
+        if (execute(request)) {
+          break;
+        }
+        idleRounds = 0;
+      } else if (processed) {
+        idleRounds = 0;
+      } else {
+        idleRounds = idle(idleRounds);
+      }
+    }
+    // Requests racing with the shutdown can no longer be served.
+    PendingRequest pending;
+    while ((pending = pendingRequests.poll()) != null) {
+      pending.result.fail();
+    }
+  }
+
+  // Polls every ring buffer once, returning true if any event was processed.
+  private boolean pollProducerRings() {
+    boolean processed = false;
+    for (ProducerRing ring : producerRings) {
+      try {
+        if (ring.poller.poll(pollerHandler) == EventPoller.PollState.PROCESSING) {
+          processed = true;
+        } else if (ring.isAbandoned() && ring.isDrained()) {
+          removeProducerRing(ring);
+        }
+      } catch (Exception e) {
+        logger.log(Level.WARNING, "Exception while processing span events.", e);
+        processed = true;
+      }
+    }
+    if (processed) {
+      eventHandler.onEndOfBatch();
+    }
+    return processed;
+  }
+
+  // Executes the request on the worker thread, returning true if the worker must stop.
+  private boolean execute(PendingRequest request) {
+    try {
+      ControlRequest.propagateResult(
+          request.isShutdown ? spanProcessor.shutdown() : spanProcessor.forceFlush(),
+          request.result);
+    } catch (RuntimeException e) {
+      logger.log(Level.WARNING, "Exception while flushing or shutting down.", e);
+      request.result.fail();
+    }
+    return request.isShutdown;
+  }
+
+  private static int idle(int idleRounds) {
+    if (idleRounds < SPIN_TRIES) {
+      return idleRounds + 1;
+    }
+    if (idleRounds < SPIN_TRIES + YIELD_TRIES) {
+      Thread.yield();
+      return idleRounds + 1;
+    }
+    LockSupport.parkNanos(PARK_NANOS);
+    return idleRounds;
+  }
+
+  // A single-producer ring buffer owned by one application thread.
+  private static final class ProducerRing {
+    private final RingBuffer<DisruptorEvent> ringBuffer;
+    private final EventPoller<DisruptorEvent> poller;
+    private final WeakReference<Thread> owner;
+
+    private ProducerRing(int bufferSize) {
+      // The ring buffer is polled, so the wait strategy is never used to wait. The busy spin
+      // strategy has a no-op signal, which keeps publishing free of locks.
+      this.ringBuffer =
+          RingBuffer.createSingleProducer(
+              DisruptorEvent.FACTORY, bufferSize, new BusySpinWaitStrategy());
+      this.poller = ringBuffer.newPoller();
+      ringBuffer.addGatingSequences(poller.getSequence());
+      this.owner = new WeakReference<>(Thread.currentThread());
+    }
+
+    private boolean isDrained() {
+      return poller.getSequence().get() >= ringBuffer.getCursor();
+    }
+
+    private boolean isAbandoned() {
+      Thread thread = owner.get();
+      return thread == null || !thread.isAlive();
+    }
+  }
+
+  // A flush or shutdown request, executed once the worker has processed every event published
+  // before it was made.
+  private static final class PendingRequest {
+    private final boolean isShutdown;
+    private final CompletableResultCode result;
+    private final ProducerRing[] rings;
+    private final long[] cursors;
+
+    private PendingRequest(boolean isShutdown, CompletableResultCode result, ProducerRing[] rings) {
+      this.isShutdown = isShutdown;
+      this.result = result;
+      this.rings = rings;
+      this.cursors = new long[rings.length];
+      for (int i = 0; i < rings.length; i++) {
+        cursors[i] = rings[i].ringBuffer.getCursor();
+      }
+    }
+
+    private boolean isReached() {
+      for (int i = 0; i < rings.length; i++) {
+        if (rings[i].poller.getSequence().get() < cursors[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of the time events waited in a ring buffer, in nanoseconds, with log-linear buckets
+ * in the manner of HdrHistogram: every power of two is split into 32 linear sub-buckets, so a
+ * recorded value is reported with a relative error below about 3%.
+ *
+ * <p>The histogram has a single writer, the worker thread, which records without allocating,
+ * locking or CAS: every bucket is only incremented by that thread and published with an ordered
+ * write. Readers take a snapshot of the buckets at any time.
+ */
+final class QueueWaitHistogram {
+  // Every power of two is split into 2^SUB_BUCKET_BITS sub-buckets.
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  // Values below 2^SUB_BUCKET_BITS get a bucket each, larger ones a bucket per sub-bucket of their
+  // power of two, up to 2^62.
+  static final int BUCKET_COUNT = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+  // Records a wait time. Must only be called by the single writer thread.
+  void record(long waitNanos) {
+    int index = bucketIndex(waitNanos);
+    // Single writer: a plain read and an ordered write are enough, no CAS is needed.
+    counts.lazySet(index, counts.get(index) + 1);
+  }
+
+  // Adds the current count of every bucket to the given array of BUCKET_COUNT counts.
+  void addTo(long[] snapshot) {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      snapshot[i] += counts.get(i);
+    }
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      // Negative values come from clocks that are not quite monotonic across cores.
+      return value < 0 ? 0 : (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  // Returns the highest value recorded in the bucket of the given index.
+  static long highestValueOf(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = index / SUB_BUCKET_COUNT - 1;
+    long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,19 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import com.lmax.disruptor.EventHandler;
+
+// Runs after all the handlers processing the same events in parallel, and clears the events once
+// every one of them processed it.
+final class ReleasingEventHandler implements EventHandler<DisruptorEvent> {
+
+  @Override
+  public void onEvent(DisruptorEvent event, long sequence, boolean endOfBatch) {
+    // Remove the reference to the previous entry to allow the memory to be gc'ed.
+    event.setEntry(null, null, null);
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import com.lmax.disruptor.WaitStrategy;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.contrib.disruptor.internal.ControlRequest;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * An {@link EventQueue} that spreads the span events over several {@link DisruptorEventQueue}s,
+ * each with its own ring buffer and consumer thread. Events are routed by trace ID, so the start
+ * and end events of a span are always processed by the same consumer, in order.
+ *
+ * <p>The delegate {@link SpanProcessor} is shared by all the consumers and must therefore be thread
+ * safe. It is flushed and shut down only once, after every shard has processed the events enqueued
+ * before the call.
+ */
+final class ShardedEventQueue implements EventQueue {
+  private final DisruptorEventQueue[] shards;
+  private final SpanProcessor spanProcessor;
+  private final long controlTimeoutNanos;
+  private boolean isShutdown = false;
+
+  ShardedEventQueue(
+      int shardCount,
+      int bufferSize,
+      WaitStrategy waitStrategy,
+      ThreadFactory threadFactory,
+      SpanProcessor spanProcessor,
+      long blockingTimeoutNanos,
+      int startEventHeadroom,
+      int priorityBufferSize,
+      Predicate<ReadableSpan> priorityPredicate,
+      long controlTimeoutNanos,
+      DisruptorMetrics metrics) {
+    SpanProcessor sharedSpanProcessor = new SharedSpanProcessor(spanProcessor);
+    this.shards = new DisruptorEventQueue[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] =
+          new DisruptorEventQueue(
+              bufferSize,
+              waitStrategy,
+              threadFactory,
+              Collections.singletonList(Collections.singletonList(sharedSpanProcessor)),
+              blockingTimeoutNanos,
+              startEventHeadroom,
+              priorityBufferSize,
+              priorityPredicate,
+              /* spanRecords= */ null,
+              controlTimeoutNanos,
+              /* wakeUpIntervalNanos= */ Long.MAX_VALUE,
+              metrics);
+    }
+    this.spanProcessor = spanProcessor;
+    this.controlTimeoutNanos = controlTimeoutNanos;
+  }
+
+  @Override
+  public void enqueueStartEvent(ReadWriteSpan span, Context parentContext) {
+    shardFor(span).enqueueStartEvent(span, parentContext);
+  }
+
+  @Override
+  public void enqueueEndEvent(ReadableSpan span) {
+    shardFor(span).enqueueEndEvent(span);
+  }
+
+  @Override
+  public CompletableResultCode forceFlush() {
+    List<CompletableResultCode> results = new ArrayList<>(shards.length);
+    for (DisruptorEventQueue shard : shards) {
+      results.add(shard.forceFlush());
+    }
+    return thenRun(CompletableResultCode.ofAll(results), spanProcessor::forceFlush);
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    synchronized (this) {
+      if (isShutdown) {
+        // Race condition between two calls to shutdown. The other call already finished.
+        return CompletableResultCode.ofSuccess();
+      }
+      isShutdown = true;
+    }
+    List<CompletableResultCode> results = new ArrayList<>(shards.length);
+    for (DisruptorEventQueue shard : shards) {
+      results.add(shard.shutdown());
+    }
+    return thenRun(CompletableResultCode.ofAll(results), spanProcessor::shutdown);
+  }
+
+  @Override
+  public long remainingCapacity() {
+    long remainingCapacity = 0;
+    for (DisruptorEventQueue shard : shards) {
+      remainingCapacity += shard.remainingCapacity();
+    }
+    return remainingCapacity;
+  }
+
+  @Override
+  public long consumerLag() {
+    long consumerLag = 0;
+    for (DisruptorEventQueue shard : shards) {
+      consumerLag += shard.consumerLag();
+    }
+    return consumerLag;
+  }
+
+  private DisruptorEventQueue shardFor(ReadableSpan span) {
+    // The trace ID's hash code is cached by the String, so routing does not allocate.
+    int hash = span.getSpanContext().getTraceId().hashCode();
+    return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+  }
+
+  // Runs the next operation once the first one completes and combines both outcomes. The combined
+  // result fails once the control timeout elapses.
+  private CompletableResultCode thenRun(
+      CompletableResultCode first, Supplier<CompletableResultCode> next) {
+    CompletableResultCode result = new CompletableResultCode();
+    ControlRequest.failAfter(result, controlTimeoutNanos);
+    first.whenComplete(
+        () -> {
+          CompletableResultCode nextResult = next.get();
+          nextResult.whenComplete(
+              () -> {
+                if (first.isSuccess() && nextResult.isSuccess()) {
+                  result.succeed();
+                } else {
+                  result.fail();
+                }
+              });
+        });
+    return result;
+  }
+
+  // Forwards the span events to the shared delegate, leaving the flush and shutdown of the
+  // delegate to the ShardedEventQueue.
+  private static final class SharedSpanProcessor implements SpanProcessor {
+    private final SpanProcessor spanProcessor;
+
+    private SharedSpanProcessor(SpanProcessor spanProcessor) {
+      this.spanProcessor = spanProcessor;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+      spanProcessor.onStart(parentContext, span);
+    }
+
+    @Override
+    public boolean isStartRequired() {
+      return spanProcessor.isStartRequired();
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+      spanProcessor.onEnd(span);
+    }
+
+    @Override
+    public boolean isEndRequired() {
+      return spanProcessor.isEndRequired();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+      return CompletableResultCode.ofSuccess();
+    }
+  }
+}
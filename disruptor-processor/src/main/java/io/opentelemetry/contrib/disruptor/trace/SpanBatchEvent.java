@@ -0,0 +1,43 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.RingBuffer;
+import io.opentelemetry.contrib.disruptor.internal.RingBuffers;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.util.Collection;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+// An event in the ring buffer of a DisruptorSpanExporter, holding a batch of spans to export. An
+// event without a batch wakes the consumer up so that it executes the pending flush and shutdown
+// requests.
+final class SpanBatchEvent {
+  static final EventFactory<SpanBatchEvent> FACTORY = SpanBatchEvent::new;
+  private static final EventTranslatorOneArg<SpanBatchEvent, Collection<SpanData>> TRANSLATOR =
+      (event, sequence, spans) -> event.setSpans(spans);
+
+  @Nullable private Collection<SpanData> spans = null;
+
+  // Publishes a batch on the given ring buffer, returning false if it was dropped, see
+  // RingBuffers.publish.
+  static boolean publish(
+      RingBuffer<SpanBatchEvent> ringBuffer,
+      long blockingTimeoutNanos,
+      @Nullable Collection<SpanData> spans) {
+    return RingBuffers.publish(ringBuffer, blockingTimeoutNanos, TRANSLATOR, spans);
+  }
+
+  void setSpans(@Nullable Collection<SpanData> spans) {
+    this.spans = spans;
+  }
+
+  @Nullable
+  Collection<SpanData> getSpans() {
+    return spans;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import com.lmax.disruptor.EventHandler;
+import io.opentelemetry.contrib.disruptor.internal.ControlRequest;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Exports the batches taken from the ring buffer of a DisruptorSpanExporter, retrying a failed
+// export with an exponential backoff. While a batch is retried, the following ones wait in the
+// ring buffer.
+final class SpanBatchEventHandler implements EventHandler<SpanBatchEvent> {
+  private static final Logger logger = Logger.getLogger(SpanBatchEventHandler.class.getName());
+
+  private final SpanExporter spanExporter;
+  private final long exporterTimeoutNanos;
+  private final int maxRetries;
+  private final long initialBackoffNanos;
+  private final long maxBackoffNanos;
+  private final ConcurrentLinkedQueue<ControlRequest> controlRequests =
+      new ConcurrentLinkedQueue<>();
+  // Counted down once shutdown is requested, after which failed exports are no longer retried. A
+  // backoff waits on it, so that shutdown cuts it short.
+  private final CountDownLatch shutdownRequested = new CountDownLatch(1);
+
+  SpanBatchEventHandler(
+      SpanExporter spanExporter,
+      long exporterTimeoutNanos,
+      int maxRetries,
+      long initialBackoffNanos,
+      long maxBackoffNanos) {
+    this.spanExporter = spanExporter;
+    this.exporterTimeoutNanos = exporterTimeoutNanos;
+    this.maxRetries = maxRetries;
+    this.initialBackoffNanos = initialBackoffNanos;
+    this.maxBackoffNanos = maxBackoffNanos;
+  }
+
+  @Override
+  public void onEvent(final SpanBatchEvent event, long sequence, boolean endOfBatch) {
+    final Collection<SpanData> spans = event.getSpans();
+    try {
+      // Null for the wake-up events of the control requests.
+      if (spans != null) {
+        exportWithRetries(spans);
+      }
+    } finally {
+      // Remove the reference to the previous entry to allow the memory to be gc'ed.
+      event.setSpans(null);
+    }
+    executeControlRequests(sequence);
+  }
+
+  // Adds a flush or shutdown request, executed once this handler processed the batches published
+  // before it.
+  void addControlRequest(ControlRequest request) {
+    controlRequests.add(request);
+    if (request.isShutdown()) {
+      shutdownRequested.countDown();
+    }
+  }
+
+  private void exportWithRetries(Collection<SpanData> spans) {
+    long backoffNanos = initialBackoffNanos;
+    for (int attempt = 0; ; attempt++) {
+      if (export(spans)) {
+        return;
+      }
+      if (attempt >= maxRetries || backOff(backoffNanos)) {
+        logger.log(Level.FINE, "Dropping a batch of spans after failed exports");
+        return;
+      }
+      backoffNanos = Math.min(backoffNanos * 2, maxBackoffNanos);
+    }
+  }
+
+  // Waits for the backoff, returning true if shutdown was requested before or during the wait.
+  private boolean backOff(long backoffNanos) {
+    try {
+      return shutdownRequested.await(backoffNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return true;
+    }
+  }
+
+  // Returns true if the export succeeded within the exporter timeout.
+  private boolean export(Collection<SpanData> spans) {
+    try {
+      CompletableResultCode result = spanExporter.export(spans);
+      result.join(exporterTimeoutNanos, TimeUnit.NANOSECONDS);
+      return result.isSuccess();
+    } catch (RuntimeException e) {
+      logger.log(Level.WARNING, "Exporter threw an Exception", e);
+      return false;
+    }
+  }
+
+  private void executeControlRequests(long sequence) {
+    ControlRequest request;
+    while ((request = controlRequests.peek()) != null && request.isReachedBy(sequence)) {
+      controlRequests.poll();
+      request.execute(/* handlerIndex= */ 0, spanExporter::shutdown, spanExporter::flush);
+    }
+  }
+}
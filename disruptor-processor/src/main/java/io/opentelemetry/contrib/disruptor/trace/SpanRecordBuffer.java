@@ -0,0 +1,646 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.AttributeType;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.TraceStateBuilder;
+import io.opentelemetry.sdk.common.InstrumentationLibraryInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An off-heap ring of fixed-size slots holding encoded {@link SpanData}, one slot per slot of the
+ * Disruptor's ring buffer. A producer encodes a span into the slot of the sequence it claimed, and
+ * the consumer decodes it when it processes that sequence, so the Disruptor's sequences also
+ * guard the slots and ended spans do not stay reachable on the heap while they are queued.
+ *
+ * <p>The {@code Resource} and {@code InstrumentationLibraryInfo} of a span are shared by many spans
+ * and are not encoded; they are interned on the heap and referenced by index. Every producer thread
+ * remembers the last instances it interned, so the intern table is only consulted when a thread
+ * ends a span of another resource or instrumentation library than its previous span.
+ */
+final class SpanRecordBuffer {
+  private static final AttributeType[] ATTRIBUTE_TYPES = AttributeType.values();
+  private static final SpanKind[] SPAN_KINDS = SpanKind.values();
+  private static final StatusCode[] STATUS_CODES = StatusCode.values();
+  private static final int TRACE_ID_LENGTH = 32;
+  private static final int SPAN_ID_LENGTH = 16;
+
+  private final ByteBuffer buffer;
+  private final int slotSize;
+  private final int indexMask;
+  private final Interner<Resource> resources = new Interner<>();
+  private final Interner<InstrumentationLibraryInfo> instrumentationLibraries = new Interner<>();
+  private final ThreadLocal<Writer> writers;
+  private final Reader reader;
+
+  SpanRecordBuffer(int slotCount, int slotSize) {
+    if (Integer.bitCount(slotCount) != 1) {
+      throw new IllegalArgumentException("slotCount must be a power of 2");
+    }
+    if ((long) slotCount * slotSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("slotCount * slotSize must fit in a ByteBuffer");
+    }
+    this.buffer = ByteBuffer.allocateDirect(slotCount * slotSize);
+    this.slotSize = slotSize;
+    this.indexMask = slotCount - 1;
+    this.writers = ThreadLocal.withInitial(() -> new Writer(buffer.duplicate()));
+    this.reader = new Reader(buffer.duplicate());
+  }
+
+  // Encodes the span into the slot of the given sequence, returning false if it does not fit.
+  boolean write(long sequence, SpanData span) {
+    return writers.get().write(offsetOf(sequence), span);
+  }
+
+  // Decodes the span from the slot of the given sequence. Only called by the consumer thread.
+  SpanData read(long sequence) {
+    return reader.read(offsetOf(sequence));
+  }
+
+  private int offsetOf(long sequence) {
+    return (int) (sequence & indexMask) * slotSize;
+  }
+
+  // Encodes spans with absolute puts on a view of the buffer owned by one producer thread. Every
+  // put checks the end of the slot, and once a span overflows the remaining puts are skipped.
+  private final class Writer implements BiConsumer<AttributeKey<?>, Object> {
+    private final ByteBuffer buffer;
+    private final BiConsumer<String, String> traceStateWriter =
+        (key, value) -> {
+          writeString(key);
+          writeString(value);
+        };
+    private int position;
+    private int limit;
+    private boolean overflow;
+    // The last interned instances, compared by identity as spans share them.
+    @Nullable private Resource lastResource;
+    private int lastResourceId;
+    @Nullable private InstrumentationLibraryInfo lastInstrumentationLibrary;
+    private int lastInstrumentationLibraryId;
+
+    private Writer(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    private boolean write(int offset, SpanData span) {
+      position = offset;
+      limit = offset + slotSize;
+      overflow = false;
+      writeSpanContext(span.getSpanContext());
+      writeSpanContext(span.getParentSpanContext());
+      writeInt(resourceId(span.getResource()));
+      writeInt(instrumentationLibraryId(span.getInstrumentationLibraryInfo()));
+      writeString(span.getName());
+      writeByte(span.getKind().ordinal());
+      writeLong(span.getStartEpochNanos());
+      writeLong(span.getEndEpochNanos());
+      writeBoolean(span.hasEnded());
+      StatusData status = span.getStatus();
+      writeByte(status.getStatusCode().ordinal());
+      writeString(status.getDescription());
+      writeAttributes(span.getAttributes());
+      writeInt(span.getTotalAttributeCount());
+      List<EventData> events = span.getEvents();
+      writeInt(events.size());
+      for (int i = 0; i < events.size(); i++) {
+        EventData event = events.get(i);
+        writeString(event.getName());
+        writeLong(event.getEpochNanos());
+        writeAttributes(event.getAttributes());
+        writeInt(event.getTotalAttributeCount());
+      }
+      writeInt(span.getTotalRecordedEvents());
+      List<LinkData> links = span.getLinks();
+      writeInt(links.size());
+      for (int i = 0; i < links.size(); i++) {
+        LinkData link = links.get(i);
+        writeSpanContext(link.getSpanContext());
+        writeAttributes(link.getAttributes());
+        writeInt(link.getTotalAttributeCount());
+      }
+      writeInt(span.getTotalRecordedLinks());
+      return !overflow;
+    }
+
+    private int resourceId(Resource resource) {
+      if (resource != lastResource) {
+        lastResourceId = resources.idOf(resource);
+        lastResource = resource;
+      }
+      return lastResourceId;
+    }
+
+    private int instrumentationLibraryId(InstrumentationLibraryInfo instrumentationLibrary) {
+      if (instrumentationLibrary != lastInstrumentationLibrary) {
+        lastInstrumentationLibraryId = instrumentationLibraries.idOf(instrumentationLibrary);
+        lastInstrumentationLibrary = instrumentationLibrary;
+      }
+      return lastInstrumentationLibraryId;
+    }
+
+    private void writeSpanContext(SpanContext spanContext) {
+      writeAscii(spanContext.getTraceId(), TRACE_ID_LENGTH);
+      writeAscii(spanContext.getSpanId(), SPAN_ID_LENGTH);
+      writeByte(spanContext.getTraceFlags().asByte());
+      writeBoolean(spanContext.isRemote());
+      TraceState traceState = spanContext.getTraceState();
+      writeInt(traceState.size());
+      traceState.forEach(traceStateWriter);
+    }
+
+    private void writeAttributes(Attributes attributes) {
+      writeInt(attributes.size());
+      attributes.forEach(this);
+    }
+
+    // Writes one attribute.
+    @Override
+    public void accept(AttributeKey<?> key, Object value) {
+      writeString(key.getKey());
+      AttributeType type = key.getType();
+      writeByte(type.ordinal());
+      switch (type) {
+        case STRING:
+          writeString((String) value);
+          break;
+        case BOOLEAN:
+          writeBoolean((Boolean) value);
+          break;
+        case LONG:
+          writeLong((Long) value);
+          break;
+        case DOUBLE:
+          writeDouble((Double) value);
+          break;
+        case STRING_ARRAY:
+        case BOOLEAN_ARRAY:
+        case LONG_ARRAY:
+        case DOUBLE_ARRAY:
+          List<?> values = (List<?>) value;
+          writeInt(values.size());
+          for (int i = 0; i < values.size(); i++) {
+            writeArrayElement(type, values.get(i));
+          }
+          break;
+      }
+    }
+
+    private void writeArrayElement(AttributeType type, Object value) {
+      switch (type) {
+        case STRING_ARRAY:
+          writeString((String) value);
+          break;
+        case BOOLEAN_ARRAY:
+          writeBoolean((Boolean) value);
+          break;
+        case LONG_ARRAY:
+          writeLong((Long) value);
+          break;
+        default:
+          writeDouble((Double) value);
+          break;
+      }
+    }
+
+    private boolean ensure(int length) {
+      if (overflow || limit - position < length) {
+        overflow = true;
+        return false;
+      }
+      return true;
+    }
+
+    private void writeByte(int value) {
+      if (ensure(1)) {
+        buffer.put(position, (byte) value);
+        position += 1;
+      }
+    }
+
+    private void writeBoolean(boolean value) {
+      writeByte(value ? 1 : 0);
+    }
+
+    private void writeInt(int value) {
+      if (ensure(4)) {
+        buffer.putInt(position, value);
+        position += 4;
+      }
+    }
+
+    private void writeLong(long value) {
+      if (ensure(8)) {
+        buffer.putLong(position, value);
+        position += 8;
+      }
+    }
+
+    private void writeDouble(double value) {
+      if (ensure(8)) {
+        buffer.putDouble(position, value);
+        position += 8;
+      }
+    }
+
+    // Writes the chars of a string, without the allocation of an encoding step.
+    private void writeString(String value) {
+      int length = value.length();
+      writeInt(length);
+      if (ensure(2 * length)) {
+        for (int i = 0; i < length; i++) {
+          buffer.putChar(position, value.charAt(i));
+          position += 2;
+        }
+      }
+    }
+
+    // Writes the ASCII chars of a hex ID of a known length.
+    private void writeAscii(String value, int length) {
+      if (ensure(length)) {
+        for (int i = 0; i < length; i++) {
+          buffer.put(position, (byte) value.charAt(i));
+          position += 1;
+        }
+      }
+    }
+  }
+
+  private final class Reader {
+    private final ByteBuffer buffer;
+    private final char[] chars = new char[TRACE_ID_LENGTH];
+    private int position;
+
+    private Reader(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    private SpanData read(int offset) {
+      position = offset;
+      SpanContext spanContext = readSpanContext();
+      SpanContext parentSpanContext = readSpanContext();
+      Resource resource = resources.get(readInt());
+      InstrumentationLibraryInfo instrumentationLibraryInfo =
+          instrumentationLibraries.get(readInt());
+      String name = readString();
+      SpanKind kind = SPAN_KINDS[readByte()];
+      long startEpochNanos = readLong();
+      long endEpochNanos = readLong();
+      boolean hasEnded = readBoolean();
+      StatusCode statusCode = STATUS_CODES[readByte()];
+      StatusData status = StatusData.create(statusCode, readString());
+      Attributes attributes = readAttributes();
+      int totalAttributeCount = readInt();
+      int eventCount = readInt();
+      List<EventData> events = eventCount == 0 ? Collections.emptyList() : new ArrayList<>();
+      for (int i = 0; i < eventCount; i++) {
+        String eventName = readString();
+        long epochNanos = readLong();
+        Attributes eventAttributes = readAttributes();
+        events.add(EventData.create(epochNanos, eventName, eventAttributes, readInt()));
+      }
+      int totalRecordedEvents = readInt();
+      int linkCount = readInt();
+      List<LinkData> links = linkCount == 0 ? Collections.emptyList() : new ArrayList<>();
+      for (int i = 0; i < linkCount; i++) {
+        SpanContext linkContext = readSpanContext();
+        Attributes linkAttributes = readAttributes();
+        links.add(LinkData.create(linkContext, linkAttributes, readInt()));
+      }
+      int totalRecordedLinks = readInt();
+      return new DecodedSpanData(
+          spanContext,
+          parentSpanContext,
+          resource,
+          instrumentationLibraryInfo,
+          name,
+          kind,
+          startEpochNanos,
+          endEpochNanos,
+          hasEnded,
+          status,
+          attributes,
+          totalAttributeCount,
+          Collections.unmodifiableList(events),
+          totalRecordedEvents,
+          Collections.unmodifiableList(links),
+          totalRecordedLinks);
+    }
+
+    private SpanContext readSpanContext() {
+      String traceId = readAscii(TRACE_ID_LENGTH);
+      String spanId = readAscii(SPAN_ID_LENGTH);
+      TraceFlags traceFlags = TraceFlags.fromByte(readByte());
+      boolean isRemote = readBoolean();
+      TraceState traceState = readTraceState();
+      return isRemote
+          ? SpanContext.createFromRemoteParent(traceId, spanId, traceFlags, traceState)
+          : SpanContext.create(traceId, spanId, traceFlags, traceState);
+    }
+
+    private TraceState readTraceState() {
+      int size = readInt();
+      if (size == 0) {
+        return TraceState.getDefault();
+      }
+      String[] entries = new String[2 * size];
+      for (int i = 0; i < entries.length; i++) {
+        entries[i] = readString();
+      }
+      // The builder puts new entries in front, so they are added from the last to the first.
+      TraceStateBuilder builder = TraceState.builder();
+      for (int i = entries.length - 2; i >= 0; i -= 2) {
+        builder.put(entries[i], entries[i + 1]);
+      }
+      return builder.build();
+    }
+
+    private Attributes readAttributes() {
+      int size = readInt();
+      if (size == 0) {
+        return Attributes.empty();
+      }
+      AttributesBuilder builder = Attributes.builder();
+      for (int i = 0; i < size; i++) {
+        String key = readString();
+        switch (ATTRIBUTE_TYPES[readByte()]) {
+          case STRING:
+            builder.put(AttributeKey.stringKey(key), readString());
+            break;
+          case BOOLEAN:
+            builder.put(AttributeKey.booleanKey(key), readBoolean());
+            break;
+          case LONG:
+            builder.put(AttributeKey.longKey(key), readLong());
+            break;
+          case DOUBLE:
+            builder.put(AttributeKey.doubleKey(key), readDouble());
+            break;
+          case STRING_ARRAY:
+            List<String> strings = new ArrayList<>();
+            for (int j = readInt(); j > 0; j--) {
+              strings.add(readString());
+            }
+            builder.put(AttributeKey.stringArrayKey(key), strings);
+            break;
+          case BOOLEAN_ARRAY:
+            List<Boolean> booleans = new ArrayList<>();
+            for (int j = readInt(); j > 0; j--) {
+              booleans.add(readBoolean());
+            }
+            builder.put(AttributeKey.booleanArrayKey(key), booleans);
+            break;
+          case LONG_ARRAY:
+            List<Long> longs = new ArrayList<>();
+            for (int j = readInt(); j > 0; j--) {
+              longs.add(readLong());
+            }
+            builder.put(AttributeKey.longArrayKey(key), longs);
+            break;
+          case DOUBLE_ARRAY:
+            List<Double> doubles = new ArrayList<>();
+            for (int j = readInt(); j > 0; j--) {
+              doubles.add(readDouble());
+            }
+            builder.put(AttributeKey.doubleArrayKey(key), doubles);
+            break;
+        }
+      }
+      return builder.build();
+    }
+
+    private byte readByte() {
+      byte value = buffer.get(position);
+      position += 1;
+      return value;
+    }
+
+    private boolean readBoolean() {
+      return readByte() != 0;
+    }
+
+    private int readInt() {
+      int value = buffer.getInt(position);
+      position += 4;
+      return value;
+    }
+
+    private long readLong() {
+      long value = buffer.getLong(position);
+      position += 8;
+      return value;
+    }
+
+    private double readDouble() {
+      double value = buffer.getDouble(position);
+      position += 8;
+      return value;
+    }
+
+    private String readString() {
+      int length = readInt();
+      char[] value = new char[length];
+      for (int i = 0; i < length; i++) {
+        value[i] = buffer.getChar(position);
+        position += 2;
+      }
+      return new String(value);
+    }
+
+    private String readAscii(int length) {
+      for (int i = 0; i < length; i++) {
+        chars[i] = (char) buffer.get(position);
+        position += 1;
+      }
+      return new String(chars, 0, length);
+    }
+  }
+
+  // Assigns a stable index to every distinct value. Spans share a handful of resources and
+  // instrumentation libraries, so the table stays small.
+  private static final class Interner<T> {
+    private final ConcurrentHashMap<T, Integer> ids = new ConcurrentHashMap<>();
+    private volatile Object[] values = new Object[0];
+
+    private int idOf(T value) {
+      Integer id = ids.get(value);
+      if (id != null) {
+        return id;
+      }
+      synchronized (this) {
+        id = ids.get(value);
+        if (id == null) {
+          Object[] newValues = Arrays.copyOf(values, values.length + 1);
+          id = values.length;
+          newValues[id] = value;
+          // Published before the id, so any reader of the id sees the value.
+          values = newValues;
+          ids.put(value, id);
+        }
+        return id;
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T get(int id) {
+      return (T) values[id];
+    }
+  }
+
+  private static final class DecodedSpanData implements SpanData {
+    private final SpanContext spanContext;
+    private final SpanContext parentSpanContext;
+    private final Resource resource;
+    private final InstrumentationLibraryInfo instrumentationLibraryInfo;
+    private final String name;
+    private final SpanKind kind;
+    private final long startEpochNanos;
+    private final long endEpochNanos;
+    private final boolean hasEnded;
+    private final StatusData status;
+    private final Attributes attributes;
+    private final int totalAttributeCount;
+    private final List<EventData> events;
+    private final int totalRecordedEvents;
+    private final List<LinkData> links;
+    private final int totalRecordedLinks;
+
+    private DecodedSpanData(
+        SpanContext spanContext,
+        SpanContext parentSpanContext,
+        Resource resource,
+        InstrumentationLibraryInfo instrumentationLibraryInfo,
+        String name,
+        SpanKind kind,
+        long startEpochNanos,
+        long endEpochNanos,
+        boolean hasEnded,
+        StatusData status,
+        Attributes attributes,
+        int totalAttributeCount,
+        List<EventData> events,
+        int totalRecordedEvents,
+        List<LinkData> links,
+        int totalRecordedLinks) {
+      this.spanContext = spanContext;
+      this.parentSpanContext = parentSpanContext;
+      this.resource = resource;
+      this.instrumentationLibraryInfo = instrumentationLibraryInfo;
+      this.name = name;
+      this.kind = kind;
+      this.startEpochNanos = startEpochNanos;
+      this.endEpochNanos = endEpochNanos;
+      this.hasEnded = hasEnded;
+      this.status = status;
+      this.attributes = attributes;
+      this.totalAttributeCount = totalAttributeCount;
+      this.events = events;
+      this.totalRecordedEvents = totalRecordedEvents;
+      this.links = links;
+      this.totalRecordedLinks = totalRecordedLinks;
+    }
+
+    @Override
+    public SpanContext getSpanContext() {
+      return spanContext;
+    }
+
+    @Override
+    public SpanContext getParentSpanContext() {
+      return parentSpanContext;
+    }
+
+    @Override
+    public Resource getResource() {
+      return resource;
+    }
+
+    @Override
+    public InstrumentationLibraryInfo getInstrumentationLibraryInfo() {
+      return instrumentationLibraryInfo;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public SpanKind getKind() {
+      return kind;
+    }
+
+    @Override
+    public long getStartEpochNanos() {
+      return startEpochNanos;
+    }
+
+    @Override
+    public long getEndEpochNanos() {
+      return endEpochNanos;
+    }
+
+    @Override
+    public boolean hasEnded() {
+      return hasEnded;
+    }
+
+    @Override
+    public StatusData getStatus() {
+      return status;
+    }
+
+    @Override
+    public Attributes getAttributes() {
+      return attributes;
+    }
+
+    @Override
+    public int getTotalAttributeCount() {
+      return totalAttributeCount;
+    }
+
+    @Override
+    public List<EventData> getEvents() {
+      return events;
+    }
+
+    @Override
+    public int getTotalRecordedEvents() {
+      return totalRecordedEvents;
+    }
+
+    @Override
+    public List<LinkData> getLinks() {
+      return links;
+    }
+
+    @Override
+    public int getTotalRecordedLinks() {
+      return totalRecordedLinks;
+    }
+  }
+}
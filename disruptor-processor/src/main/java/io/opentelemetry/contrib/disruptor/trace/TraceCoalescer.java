@@ -0,0 +1,109 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Groups ended spans by trace ID and releases a group once the local root span of its trace ended,
+ * once it is older than the timeout, or once it holds the maximum number of spans. When more
+ * traces than the maximum are pending, the oldest one is released early.
+ *
+ * <p>All the methods are invoked on the Disruptor's worker thread, so the groups are never
+ * accessed concurrently.
+ */
+final class TraceCoalescer {
+
+  private final int maxPendingTraces;
+  private final int maxTraceSize;
+  private final long timeoutNanos;
+  private final Consumer<List<SpanData>> release;
+  // In the order the traces were first seen, so the oldest trace comes first.
+  private final LinkedHashMap<String, PendingTrace> pendingTraces = new LinkedHashMap<>();
+
+  TraceCoalescer(
+      int maxPendingTraces,
+      int maxTraceSize,
+      long timeoutNanos,
+      Consumer<List<SpanData>> release) {
+    this.maxPendingTraces = maxPendingTraces;
+    this.maxTraceSize = maxTraceSize;
+    this.timeoutNanos = timeoutNanos;
+    this.release = release;
+  }
+
+  // Adds an ended span to the group of its trace, releasing the group if the span is the local
+  // root of the trace.
+  void add(SpanData spanData, long nowNanos) {
+    String traceId = spanData.getTraceId();
+    PendingTrace pendingTrace = pendingTraces.get(traceId);
+    if (pendingTrace == null) {
+      if (pendingTraces.size() >= maxPendingTraces) {
+        releaseOldest();
+      }
+      pendingTrace = new PendingTrace(nowNanos);
+      pendingTraces.put(traceId, pendingTrace);
+    }
+    pendingTrace.spans.add(spanData);
+    if (isLocalRoot(spanData) || pendingTrace.spans.size() >= maxTraceSize) {
+      pendingTraces.remove(traceId);
+      release.accept(pendingTrace.spans);
+    }
+  }
+
+  // Releases the groups that have been pending for longer than the timeout.
+  void releaseExpired(long nowNanos) {
+    Iterator<PendingTrace> iterator = pendingTraces.values().iterator();
+    while (iterator.hasNext()) {
+      PendingTrace pendingTrace = iterator.next();
+      if (nowNanos - pendingTrace.createdNanos < timeoutNanos) {
+        // The following groups are younger.
+        return;
+      }
+      iterator.remove();
+      release.accept(pendingTrace.spans);
+    }
+  }
+
+  // Releases every pending group, on flush and shutdown.
+  void releaseAll() {
+    Iterator<PendingTrace> iterator = pendingTraces.values().iterator();
+    while (iterator.hasNext()) {
+      PendingTrace pendingTrace = iterator.next();
+      iterator.remove();
+      release.accept(pendingTrace.spans);
+    }
+  }
+
+  private void releaseOldest() {
+    Iterator<Map.Entry<String, PendingTrace>> iterator = pendingTraces.entrySet().iterator();
+    PendingTrace oldest = iterator.next().getValue();
+    iterator.remove();
+    release.accept(oldest.spans);
+  }
+
+  // The local root has no parent in this process: either none at all, or a remote one.
+  private static boolean isLocalRoot(SpanData spanData) {
+    SpanContext parentSpanContext = spanData.getParentSpanContext();
+    return !parentSpanContext.isValid() || parentSpanContext.isRemote();
+  }
+
+  private static final class PendingTrace {
+    private final long createdNanos;
+    private final List<SpanData> spans = new ArrayList<>();
+
+    private PendingTrace(long createdNanos) {
+      this.createdNanos = createdNanos;
+    }
+  }
+}
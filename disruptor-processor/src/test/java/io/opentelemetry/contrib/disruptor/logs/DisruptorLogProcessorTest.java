@@ -0,0 +1,122 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.logs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logging.LogProcessor;
+import io.opentelemetry.sdk.logging.data.LogRecord;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Unit tests for {@link DisruptorLogProcessor}. */
+@ExtendWith(MockitoExtension.class)
+class DisruptorLogProcessorTest {
+
+  @Mock private LogRecord logRecord;
+
+  // LogProcessor counting the calls to its hooks.
+  private static class IncrementLogProcessor implements LogProcessor {
+    private final AtomicInteger counterOnAddLogRecord = new AtomicInteger(0);
+    private final AtomicInteger counterOnShutdown = new AtomicInteger(0);
+    private final AtomicInteger counterOnForceFlush = new AtomicInteger(0);
+
+    @Override
+    public void addLogRecord(LogRecord record) {
+      counterOnAddLogRecord.incrementAndGet();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      counterOnShutdown.incrementAndGet();
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+      counterOnForceFlush.incrementAndGet();
+      return CompletableResultCode.ofSuccess();
+    }
+
+    private int getCounterOnAddLogRecord() {
+      return counterOnAddLogRecord.get();
+    }
+
+    private int getCounterOnShutdown() {
+      return counterOnShutdown.get();
+    }
+
+    private int getCounterOnForceFlush() {
+      return counterOnForceFlush.get();
+    }
+  }
+
+  @Test
+  void addLogRecords() {
+    IncrementLogProcessor incrementLogProcessor = new IncrementLogProcessor();
+    DisruptorLogProcessor disruptorLogProcessor =
+        DisruptorLogProcessor.builder(incrementLogProcessor).build();
+    for (int i = 0; i < 1000; i++) {
+      disruptorLogProcessor.addLogRecord(logRecord);
+    }
+    disruptorLogProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(incrementLogProcessor.getCounterOnAddLogRecord()).isEqualTo(1000);
+    assertThat(incrementLogProcessor.getCounterOnForceFlush()).isEqualTo(1);
+    disruptorLogProcessor.shutdown().join(10, TimeUnit.SECONDS);
+    assertThat(incrementLogProcessor.getCounterOnShutdown()).isEqualTo(1);
+    // Log records added after the shutdown are ignored.
+    disruptorLogProcessor.addLogRecord(logRecord);
+    assertThat(disruptorLogProcessor.forceFlush().isSuccess()).isFalse();
+    assertThat(incrementLogProcessor.getCounterOnAddLogRecord()).isEqualTo(1000);
+  }
+
+  @Test
+  void nonBlockingDropsWhenFull() throws InterruptedException {
+    CountDownLatch consumerBlocked = new CountDownLatch(1);
+    CountDownLatch releaseConsumer = new CountDownLatch(1);
+    IncrementLogProcessor blockingLogProcessor =
+        new IncrementLogProcessor() {
+          @Override
+          public void addLogRecord(LogRecord record) {
+            consumerBlocked.countDown();
+            try {
+              releaseConsumer.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            super.addLogRecord(record);
+          }
+        };
+    DisruptorLogProcessor disruptorLogProcessor =
+        DisruptorLogProcessor.builder(blockingLogProcessor)
+            .setBlocking(false)
+            .setBufferSize(4)
+            .setControlTimeout(100, TimeUnit.MILLISECONDS)
+            .build();
+    disruptorLogProcessor.addLogRecord(logRecord);
+    assertThat(consumerBlocked.await(10, TimeUnit.SECONDS)).isTrue();
+    for (int i = 0; i < 4; i++) {
+      disruptorLogProcessor.addLogRecord(logRecord);
+    }
+    // The consumer is stuck, so the flush fails once the control timeout elapses.
+    CompletableResultCode timedOutFlush = disruptorLogProcessor.forceFlush();
+    timedOutFlush.join(10, TimeUnit.SECONDS);
+    assertThat(timedOutFlush.isSuccess()).isFalse();
+    CompletableResultCode flush = disruptorLogProcessor.forceFlush();
+    releaseConsumer.countDown();
+    flush.join(10, TimeUnit.SECONDS);
+    assertThat(flush.isSuccess()).isTrue();
+    // The blocked record still holds its slot, so the last of the 4 records was dropped.
+    assertThat(blockingLogProcessor.getCounterOnAddLogRecord()).isEqualTo(4);
+    disruptorLogProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.contrib.disruptor.trace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Unit tests for {@link DisruptorSpanExporter}. */
+@ExtendWith(MockitoExtension.class)
+class DisruptorSpanExporterTest {
+
+  @Mock private SpanData spanData;
+
+  // SpanExporter failing the given number of exports before succeeding.
+  private static class FailingSpanExporter implements SpanExporter {
+    private final AtomicInteger remainingFailures;
+    private final AtomicInteger counterOnExport = new AtomicInteger(0);
+    private final List<SpanData> exportedSpans = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger counterOnFlush = new AtomicInteger(0);
+    private final AtomicInteger counterOnShutdown = new AtomicInteger(0);
+
+    private FailingSpanExporter(int failures) {
+      this.remainingFailures = new AtomicInteger(failures);
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+      counterOnExport.incrementAndGet();
+      if (remainingFailures.getAndDecrement() > 0) {
+        return CompletableResultCode.ofFailure();
+      }
+      exportedSpans.addAll(spans);
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+      counterOnFlush.incrementAndGet();
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      counterOnShutdown.incrementAndGet();
+      return CompletableResultCode.ofSuccess();
+    }
+  }
+
+  @Test
+  void exportBatches() {
+    FailingSpanExporter spanExporter = new FailingSpanExporter(0);
+    DisruptorSpanExporter disruptorSpanExporter =
+        DisruptorSpanExporter.builder(spanExporter).build();
+    List<SpanData> batch = new ArrayList<>(Collections.nCopies(10, spanData));
+    for (int i = 0; i < 100; i++) {
+      assertThat(disruptorSpanExporter.export(batch).isSuccess()).isTrue();
+    }
+    // The caller may reuse its collection right away.
+    batch.clear();
+    disruptorSpanExporter.flush().join(10, TimeUnit.SECONDS);
+    assertThat(spanExporter.exportedSpans).hasSize(1000);
+    assertThat(spanExporter.counterOnFlush.get()).isEqualTo(1);
+    disruptorSpanExporter.shutdown().join(10, TimeUnit.SECONDS);
+    assertThat(spanExporter.counterOnShutdown.get()).isEqualTo(1);
+    assertThat(disruptorSpanExporter.export(batch).isSuccess()).isFalse();
+  }
+
+  @Test
+  void retryFailedExports() {
+    FailingSpanExporter spanExporter = new FailingSpanExporter(3);
+    DisruptorSpanExporter disruptorSpanExporter =
+        DisruptorSpanExporter.builder(spanExporter)
+            .setMaxRetries(3)
+            .setRetryBackoff(1, 4, TimeUnit.MILLISECONDS)
+            .build();
+    assertThat(disruptorSpanExporter.export(Collections.singletonList(spanData)).isSuccess())
+        .isTrue();
+    disruptorSpanExporter.flush().join(10, TimeUnit.SECONDS);
+    assertThat(spanExporter.counterOnExport.get()).isEqualTo(4);
+    assertThat(spanExporter.exportedSpans).hasSize(1);
+    disruptorSpanExporter.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void dropBatchesAfterMaxRetries() {
+    FailingSpanExporter spanExporter = new FailingSpanExporter(Integer.MAX_VALUE);
+    DisruptorSpanExporter disruptorSpanExporter =
+        DisruptorSpanExporter.builder(spanExporter)
+            .setMaxRetries(2)
+            .setRetryBackoff(1, 1, TimeUnit.MILLISECONDS)
+            .build();
+    disruptorSpanExporter.export(Collections.singletonList(spanData));
+    disruptorSpanExporter.export(Collections.singletonList(spanData));
+    disruptorSpanExporter.flush().join(10, TimeUnit.SECONDS);
+    assertThat(spanExporter.counterOnExport.get()).isEqualTo(6);
+    assertThat(spanExporter.exportedSpans).isEmpty();
+    disruptorSpanExporter.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void shutdownInterruptsBackoff() throws InterruptedException {
+    CountDownLatch exported = new CountDownLatch(1);
+    FailingSpanExporter spanExporter =
+        new FailingSpanExporter(Integer.MAX_VALUE) {
+          @Override
+          public CompletableResultCode export(Collection<SpanData> spans) {
+            exported.countDown();
+            return super.export(spans);
+          }
+        };
+    DisruptorSpanExporter disruptorSpanExporter =
+        DisruptorSpanExporter.builder(spanExporter)
+            .setRetryBackoff(1, 1, TimeUnit.MINUTES)
+            .build();
+    disruptorSpanExporter.export(Collections.singletonList(spanData));
+    assertThat(exported.await(10, TimeUnit.SECONDS)).isTrue();
+    long start = System.nanoTime();
+    CompletableResultCode shutdown = disruptorSpanExporter.shutdown().join(10, TimeUnit.SECONDS);
+    assertThat(shutdown.isSuccess()).isTrue();
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(10));
+    assertThat(spanExporter.counterOnExport.get()).isEqualTo(1);
+    assertThat(spanExporter.counterOnShutdown.get()).isEqualTo(1);
+  }
+
+  @Test
+  void zeroExporterTimeoutWaitsForExport() {
+    FailingSpanExporter spanExporter =
+        new FailingSpanExporter(0) {
+          @Override
+          public CompletableResultCode export(Collection<SpanData> spans) {
+            CompletableResultCode result = new CompletableResultCode();
+            Thread thread =
+                new Thread(
+                    () -> {
+                      try {
+                        Thread.sleep(50);
+                      } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                      }
+                      super.export(spans);
+                      result.succeed();
+                    });
+            thread.start();
+            return result;
+          }
+        };
+    DisruptorSpanExporter disruptorSpanExporter =
+        DisruptorSpanExporter.builder(spanExporter)
+            .setExporterTimeout(0, TimeUnit.MILLISECONDS)
+            .setRetryBackoff(1, 1, TimeUnit.MILLISECONDS)
+            .build();
+    disruptorSpanExporter.export(Collections.singletonList(spanData));
+    disruptorSpanExporter.flush().join(10, TimeUnit.SECONDS);
+    // Completed once in the background, rather than failed and retried.
+    assertThat(spanExporter.counterOnExport.get()).isEqualTo(1);
+    assertThat(spanExporter.exportedSpans).hasSize(1);
+    disruptorSpanExporter.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void dropBatchesWhenFull() throws InterruptedException {
+    CountDownLatch consumerBlocked = new CountDownLatch(1);
+    CountDownLatch releaseConsumer = new CountDownLatch(1);
+    FailingSpanExporter blockingSpanExporter =
+        new FailingSpanExporter(0) {
+          @Override
+          public CompletableResultCode export(Collection<SpanData> spans) {
+            consumerBlocked.countDown();
+            try {
+              releaseConsumer.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            return super.export(spans);
+          }
+        };
+    DisruptorSpanExporter disruptorSpanExporter =
+        DisruptorSpanExporter.builder(blockingSpanExporter).setBufferSize(4).build();
+    List<SpanData> batch = Collections.singletonList(spanData);
+    assertThat(disruptorSpanExporter.export(batch).isSuccess()).isTrue();
+    assertThat(consumerBlocked.await(10, TimeUnit.SECONDS)).isTrue();
+    // The blocked batch still holds its slot, so only 3 more batches fit.
+    for (int i = 0; i < 3; i++) {
+      assertThat(disruptorSpanExporter.export(batch).isSuccess()).isTrue();
+    }
+    assertThat(disruptorSpanExporter.export(batch).isSuccess()).isFalse();
+    releaseConsumer.countDown();
+    disruptorSpanExporter.flush().join(10, TimeUnit.SECONDS);
+    assertThat(blockingSpanExporter.exportedSpans).hasSize(4);
+    disruptorSpanExporter.shutdown().join(10, TimeUnit.SECONDS);
+  }
+}
@@ -5,14 +5,45 @@
 
 package io.opentelemetry.contrib.disruptor.trace;
 
+import static io.opentelemetry.api.common.AttributeKey.booleanArrayKey;
+import static io.opentelemetry.api.common.AttributeKey.doubleKey;
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.PhasedBackoffWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.sun.management.ThreadMXBean;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.internal.DaemonThreadFactory;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
 import io.opentelemetry.sdk.trace.ReadWriteSpan;
 import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
 import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
@@ -106,6 +137,37 @@ class DisruptorSpanProcessorTest {
     }
   }
 
+  // SpanExporter recording the size of every exported batch.
+  private static class RecordingSpanExporter implements SpanExporter {
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private final List<SpanData> exportedSpans = Collections.synchronizedList(new ArrayList<>());
+    private final List<List<SpanData>> batches = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger counterOnExport = new AtomicInteger(0);
+    private final AtomicInteger counterOnFlush = new AtomicInteger(0);
+    private final AtomicInteger counterOnShutdown = new AtomicInteger(0);
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+      batchSizes.add(spans.size());
+      exportedSpans.addAll(spans);
+      batches.add(new ArrayList<>(spans));
+      counterOnExport.addAndGet(spans.size());
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+      counterOnFlush.incrementAndGet();
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      counterOnShutdown.incrementAndGet();
+      return CompletableResultCode.ofSuccess();
+    }
+  }
+
   @Test
   void incrementOnce() {
     IncrementSpanProcessor incrementSpanProcessor = new IncrementSpanProcessor(REQUIRED, REQUIRED);
@@ -125,6 +187,29 @@ class DisruptorSpanProcessorTest {
     assertThat(incrementSpanProcessor.getCounterOnShutdown()).isEqualTo(1);
   }
 
+  @Test
+  void synchronousStart() {
+    SdkMeterProvider meterProvider = SdkMeterProvider.builder().build();
+    IncrementSpanProcessor incrementSpanProcessor = new IncrementSpanProcessor(REQUIRED, REQUIRED);
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(incrementSpanProcessor)
+            .setSynchronousStart(true)
+            .setMeterProvider(meterProvider)
+            .build();
+    assertThat(disruptorSpanProcessor.isStartRequired()).isTrue();
+    // Invoked on the caller thread, before any flush.
+    disruptorSpanProcessor.onStart(Context.root(), readWriteSpan);
+    assertThat(incrementSpanProcessor.getCounterOnStart()).isEqualTo(1);
+    // Only the end event takes a slot of the ring buffer.
+    assertThat(longValue(meterProvider, "disruptor.span_processor.remaining_capacity"))
+        .isEqualTo(8192);
+    disruptorSpanProcessor.onEnd(readableSpan);
+    disruptorSpanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(incrementSpanProcessor.getCounterOnStart()).isEqualTo(1);
+    assertThat(incrementSpanProcessor.getCounterOnEnd()).isEqualTo(1);
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
   @Test
   void incrementOnce_NoStart() {
     IncrementSpanProcessor incrementSpanProcessor =
@@ -256,4 +341,727 @@ class DisruptorSpanProcessorTest {
     assertThat(incrementSpanProcessor.getCounterOnExportedForceFlushSpans()).isEqualTo(tenK);
     assertThat(incrementSpanProcessor.getCounterOnShutdown()).isEqualTo(1);
   }
+
+  @Test
+  void startAndEndDoNotAllocate() {
+    ThreadMXBean threadMxBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadMxBean.isThreadAllocatedMemorySupported());
+    threadMxBean.setThreadAllocatedMemoryEnabled(true);
+    final int iterations = 100000;
+    IncrementSpanProcessor incrementSpanProcessor = new IncrementSpanProcessor(REQUIRED, REQUIRED);
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(incrementSpanProcessor).build();
+    Context context = Context.root();
+    long threadId = Thread.currentThread().getId();
+    // Warm up so that class loading and compilation are not part of the measurement.
+    for (int i = 0; i < iterations; i++) {
+      disruptorSpanProcessor.onStart(context, readWriteSpan);
+      disruptorSpanProcessor.onEnd(readableSpan);
+    }
+    long allocatedBefore = threadMxBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < iterations; i++) {
+      disruptorSpanProcessor.onStart(context, readWriteSpan);
+      disruptorSpanProcessor.onEnd(readableSpan);
+    }
+    long allocated = threadMxBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+    assertThat(incrementSpanProcessor.getCounterOnEnd()).isEqualTo(2 * iterations);
+    // Any allocation on the publishing path would cost at least one object header per event.
+    assertThat(allocated).isLessThan(iterations);
+  }
+
+  @Test
+  void exportEndedSpansInBatches() {
+    final int tenK = 10000;
+    final int maxExportBatchSize = 64;
+    RecordingSpanExporter recordingSpanExporter = new RecordingSpanExporter();
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.exporterBuilder(recordingSpanExporter)
+            .setMaxExportBatchSize(maxExportBatchSize)
+            .build();
+    assertThat(disruptorSpanProcessor.isStartRequired()).isFalse();
+    assertThat(disruptorSpanProcessor.isEndRequired()).isTrue();
+    SdkTracerProvider tracerProvider =
+        SdkTracerProvider.builder().addSpanProcessor(disruptorSpanProcessor).build();
+    Tracer tracer = tracerProvider.get("test");
+    for (int i = 0; i < tenK; i++) {
+      tracer.spanBuilder("span").startSpan().end();
+    }
+    disruptorSpanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(recordingSpanExporter.counterOnExport.get()).isEqualTo(tenK);
+    assertThat(recordingSpanExporter.counterOnFlush.get()).isEqualTo(1);
+    assertThat(recordingSpanExporter.batchSizes)
+        .allSatisfy(size -> assertThat(size).isBetween(1, maxExportBatchSize));
+    tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+    assertThat(recordingSpanExporter.counterOnShutdown.get()).isEqualTo(1);
+  }
+
+  @Test
+  void droppedEventsAreRecorded() throws InterruptedException {
+    CountDownLatch consumerBlocked = new CountDownLatch(1);
+    CountDownLatch releaseConsumer = new CountDownLatch(1);
+    SpanProcessor blockingSpanProcessor =
+        new IncrementSpanProcessor(NOT_REQUIRED, REQUIRED) {
+          @Override
+          public void onEnd(ReadableSpan span) {
+            consumerBlocked.countDown();
+            try {
+              releaseConsumer.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        };
+    SdkMeterProvider meterProvider = SdkMeterProvider.builder().build();
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(blockingSpanProcessor)
+            .setBlocking(false)
+            .setBufferSize(4)
+            .setMeterProvider(meterProvider)
+            .build();
+    disruptorSpanProcessor.onEnd(readableSpan);
+    assertThat(consumerBlocked.await(10, TimeUnit.SECONDS)).isTrue();
+    for (int i = 0; i < 10; i++) {
+      disruptorSpanProcessor.onEnd(readableSpan);
+    }
+    assertThat(longValue(meterProvider, "disruptor.span_processor.dropped_events"))
+        .isEqualTo(7);
+    assertThat(longValue(meterProvider, "disruptor.span_processor.remaining_capacity"))
+        .isEqualTo(0);
+    assertThat(longValue(meterProvider, "disruptor.span_processor.consumer_lag")).isEqualTo(4);
+    releaseConsumer.countDown();
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void startEventsAreShedAboveHighWaterMark() throws InterruptedException {
+    CountDownLatch consumerBlocked = new CountDownLatch(1);
+    CountDownLatch releaseConsumer = new CountDownLatch(1);
+    IncrementSpanProcessor blockingSpanProcessor =
+        new IncrementSpanProcessor(REQUIRED, REQUIRED) {
+          @Override
+          public void onEnd(ReadableSpan span) {
+            consumerBlocked.countDown();
+            try {
+              releaseConsumer.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        };
+    SdkMeterProvider meterProvider = SdkMeterProvider.builder().build();
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(blockingSpanProcessor)
+            .setBlocking(false)
+            .setBufferSize(8)
+            .setStartEventHighWaterMark(0.5)
+            .setMeterProvider(meterProvider)
+            .build();
+    disruptorSpanProcessor.onEnd(readableSpan);
+    assertThat(consumerBlocked.await(10, TimeUnit.SECONDS)).isTrue();
+    // Start events are enqueued until only 4 slots are left, which stay free for end events.
+    for (int i = 0; i < 10; i++) {
+      disruptorSpanProcessor.onStart(Context.root(), readWriteSpan);
+    }
+    assertThat(longValue(meterProvider, "disruptor.span_processor.shed_start_events"))
+        .isEqualTo(6);
+    for (int i = 0; i < 3; i++) {
+      disruptorSpanProcessor.onEnd(readableSpan);
+    }
+    assertThat(longValue(meterProvider, "disruptor.span_processor.dropped_events")).isEqualTo(0);
+    assertThat(longValue(meterProvider, "disruptor.span_processor.remaining_capacity"))
+        .isEqualTo(0);
+    releaseConsumer.countDown();
+    disruptorSpanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(blockingSpanProcessor.getCounterOnStart()).isEqualTo(4);
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void queueWaitTimeIsRecorded() {
+    IncrementSpanProcessor slowSpanProcessor =
+        new IncrementSpanProcessor(NOT_REQUIRED, REQUIRED) {
+          @Override
+          public void onEnd(ReadableSpan span) {
+            try {
+              Thread.sleep(10);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            super.onEnd(span);
+          }
+        };
+    SdkMeterProvider meterProvider = SdkMeterProvider.builder().build();
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(slowSpanProcessor)
+            .setRecordQueueWaitTime(true)
+            .setMeterProvider(meterProvider)
+            .build();
+    for (int i = 0; i < 5; i++) {
+      disruptorSpanProcessor.onEnd(readableSpan);
+    }
+    disruptorSpanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(slowSpanProcessor.getCounterOnEnd()).isEqualTo(5);
+    // The last event waited behind the four before it.
+    Collection<LongPointData> points =
+        meterProvider.collectAllMetrics().stream()
+            .filter(metric -> metric.getName().equals("disruptor.span_processor.queue_wait_time"))
+            .findFirst()
+            .orElseThrow(AssertionError::new)
+            .getLongGaugeData()
+            .getPoints();
+    assertThat(points).hasSize(5);
+    assertThat(points)
+        .filteredOn(point -> "1.0".equals(point.getAttributes().get(stringKey("quantile"))))
+        .singleElement()
+        .satisfies(
+            point -> assertThat(point.getValue()).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(30)));
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  private static long longValue(SdkMeterProvider meterProvider, String name) {
+    for (MetricData metric : meterProvider.collectAllMetrics()) {
+      if (metric.getName().equals(name)) {
+        Collection<LongPointData> points =
+            metric.getLongSumData().getPoints().isEmpty()
+                ? metric.getLongGaugeData().getPoints()
+                : metric.getLongSumData().getPoints();
+        return points.stream().mapToLong(LongPointData::getValue).sum();
+      }
+    }
+    return 0;
+  }
+
+  @Test
+  void shardedIncrementTenK() {
+    final int tenK = 10000;
+    IncrementSpanProcessor incrementSpanProcessor = new IncrementSpanProcessor(REQUIRED, REQUIRED);
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(incrementSpanProcessor).setShardCount(4).build();
+    SdkTracerProvider tracerProvider =
+        SdkTracerProvider.builder().addSpanProcessor(disruptorSpanProcessor).build();
+    Tracer tracer = tracerProvider.get("test");
+    for (int i = 0; i < tenK; i++) {
+      tracer.spanBuilder("span").startSpan().end();
+    }
+    disruptorSpanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(incrementSpanProcessor.getCounterOnStart()).isEqualTo(tenK);
+    assertThat(incrementSpanProcessor.getCounterOnEnd()).isEqualTo(tenK);
+    assertThat(incrementSpanProcessor.getCounterOnForceFlush()).isEqualTo(1);
+    tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+    assertThat(incrementSpanProcessor.getCounterOnShutdown()).isEqualTo(1);
+  }
+
+  @Test
+  void perThreadRingBuffersIncrementTenK() throws InterruptedException {
+    final int tenK = 10000;
+    final int threadCount = 4;
+    IncrementSpanProcessor incrementSpanProcessor = new IncrementSpanProcessor(REQUIRED, REQUIRED);
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(incrementSpanProcessor)
+            .setPerThreadRingBuffers(true)
+            .setBufferSize(256)
+            .build();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < threadCount; i++) {
+      Thread thread =
+          new Thread(
+              () -> {
+                for (int j = 0; j < tenK / threadCount; j++) {
+                  disruptorSpanProcessor.onStart(Context.root(), readWriteSpan);
+                  disruptorSpanProcessor.onEnd(readableSpan);
+                }
+              });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    disruptorSpanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(incrementSpanProcessor.getCounterOnStart()).isEqualTo(tenK);
+    assertThat(incrementSpanProcessor.getCounterOnEnd()).isEqualTo(tenK);
+    assertThat(incrementSpanProcessor.getCounterOnForceFlush()).isEqualTo(1);
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+    assertThat(incrementSpanProcessor.getCounterOnShutdown()).isEqualTo(1);
+  }
+
+  @Test
+  void adaptiveWaitStrategyRecordsWaits() throws InterruptedException {
+    IncrementSpanProcessor incrementSpanProcessor = new IncrementSpanProcessor(REQUIRED, REQUIRED);
+    SdkMeterProvider meterProvider = SdkMeterProvider.builder().build();
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(incrementSpanProcessor)
+            .setWaitingStrategy(new AdaptiveWaitStrategy())
+            .setMeterProvider(meterProvider)
+            .build();
+    for (int i = 0; i < 100; i++) {
+      disruptorSpanProcessor.onStart(Context.root(), readWriteSpan);
+      disruptorSpanProcessor.onEnd(readableSpan);
+    }
+    // Leave the worker idle long enough to go through spinning and yielding into parking.
+    Thread.sleep(50);
+    disruptorSpanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(incrementSpanProcessor.getCounterOnStart()).isEqualTo(100);
+    assertThat(incrementSpanProcessor.getCounterOnEnd()).isEqualTo(100);
+    assertThat(longValue(meterProvider, "disruptor.span_processor.wait_strategy.waits"))
+        .isGreaterThan(0);
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void blockingTimeoutDropsEvents() throws InterruptedException {
+    CountDownLatch consumerBlocked = new CountDownLatch(1);
+    CountDownLatch releaseConsumer = new CountDownLatch(1);
+    SpanProcessor blockingSpanProcessor =
+        new IncrementSpanProcessor(NOT_REQUIRED, REQUIRED) {
+          @Override
+          public void onEnd(ReadableSpan span) {
+            consumerBlocked.countDown();
+            try {
+              releaseConsumer.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        };
+    SdkMeterProvider meterProvider = SdkMeterProvider.builder().build();
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(blockingSpanProcessor)
+            .setBlocking(true)
+            .setBlockingTimeout(10, TimeUnit.MILLISECONDS)
+            .setBufferSize(4)
+            .setMeterProvider(meterProvider)
+            .build();
+    disruptorSpanProcessor.onEnd(readableSpan);
+    assertThat(consumerBlocked.await(10, TimeUnit.SECONDS)).isTrue();
+    long start = System.nanoTime();
+    for (int i = 0; i < 10; i++) {
+      disruptorSpanProcessor.onEnd(readableSpan);
+    }
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+    assertThat(longValue(meterProvider, "disruptor.span_processor.dropped_events")).isEqualTo(7);
+    releaseConsumer.countDown();
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void prioritySpansBypassBacklog() throws InterruptedException {
+    CountDownLatch consumerBlocked = new CountDownLatch(1);
+    CountDownLatch releaseConsumer = new CountDownLatch(1);
+    List<ReadableSpan> endedSpans = Collections.synchronizedList(new ArrayList<>());
+    SpanProcessor blockingSpanProcessor =
+        new IncrementSpanProcessor(NOT_REQUIRED, REQUIRED) {
+          @Override
+          public void onEnd(ReadableSpan span) {
+            endedSpans.add(span);
+            consumerBlocked.countDown();
+            try {
+              releaseConsumer.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        };
+    SdkMeterProvider meterProvider = SdkMeterProvider.builder().build();
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(blockingSpanProcessor)
+            .setBlocking(true)
+            .setBlockingTimeout(100, TimeUnit.MILLISECONDS)
+            .setBufferSize(4)
+            .setPriorityBufferSize(2)
+            .setPriorityPredicate(span -> span == readWriteSpan)
+            .setMeterProvider(meterProvider)
+            .build();
+    disruptorSpanProcessor.onEnd(readableSpan);
+    assertThat(consumerBlocked.await(10, TimeUnit.SECONDS)).isTrue();
+    // The main ring buffer is full after three more events.
+    for (int i = 0; i < 4; i++) {
+      disruptorSpanProcessor.onEnd(readableSpan);
+    }
+    disruptorSpanProcessor.onEnd(readWriteSpan);
+    assertThat(longValue(meterProvider, "disruptor.span_processor.dropped_events")).isEqualTo(1);
+    releaseConsumer.countDown();
+    disruptorSpanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(endedSpans)
+        .containsExactly(readableSpan, readWriteSpan, readableSpan, readableSpan, readableSpan);
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void priorityLaneRequiresPredicate() {
+    assertThatThrownBy(
+            () ->
+                DisruptorSpanProcessor.builder(new IncrementSpanProcessor(REQUIRED, REQUIRED))
+                    .setPriorityBufferSize(2)
+                    .build())
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void exportOffHeapRecords() {
+    RecordingSpanExporter recordingSpanExporter = new RecordingSpanExporter();
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.exporterBuilder(recordingSpanExporter)
+            .setBufferSize(16)
+            .setOffHeapRecordSize(1024)
+            .build();
+    SdkTracerProvider tracerProvider =
+        SdkTracerProvider.builder().addSpanProcessor(disruptorSpanProcessor).build();
+    Tracer tracer = tracerProvider.get("test");
+    Span parent = tracer.spanBuilder("parent").startSpan();
+    List<ReadableSpan> endedSpans = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Span span =
+          tracer
+              .spanBuilder("span")
+              .setParent(Context.root().with(parent))
+              .setSpanKind(SpanKind.CLIENT)
+              .addLink(parent.getSpanContext(), Attributes.of(stringKey("link"), "value"))
+              .setAttribute("index", i)
+              .setAttribute(booleanArrayKey("flags"), Arrays.asList(true, false))
+              .startSpan();
+      span.addEvent("event", Attributes.of(doubleKey("value"), 0.5));
+      span.setStatus(StatusCode.ERROR, "failed");
+      span.end();
+      endedSpans.add((ReadableSpan) span);
+    }
+    // Too large for a slot, queued as a reference to the span.
+    Span largeSpan =
+        tracer.spanBuilder("large").setAttribute("large", repeat('x', 2048)).startSpan();
+    largeSpan.end();
+    endedSpans.add((ReadableSpan) largeSpan);
+    disruptorSpanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(recordingSpanExporter.exportedSpans).hasSize(endedSpans.size());
+    for (int i = 0; i < endedSpans.size(); i++) {
+      SpanData expected = endedSpans.get(i).toSpanData();
+      SpanData actual = recordingSpanExporter.exportedSpans.get(i);
+      assertThat(actual.getSpanContext()).isEqualTo(expected.getSpanContext());
+      assertThat(actual.getParentSpanContext()).isEqualTo(expected.getParentSpanContext());
+      assertThat(actual.getResource()).isEqualTo(expected.getResource());
+      assertThat(actual.getInstrumentationLibraryInfo())
+          .isEqualTo(expected.getInstrumentationLibraryInfo());
+      assertThat(actual.getName()).isEqualTo(expected.getName());
+      assertThat(actual.getKind()).isEqualTo(expected.getKind());
+      assertThat(actual.getStartEpochNanos()).isEqualTo(expected.getStartEpochNanos());
+      assertThat(actual.getEndEpochNanos()).isEqualTo(expected.getEndEpochNanos());
+      assertThat(actual.getStatus()).isEqualTo(expected.getStatus());
+      assertThat(actual.getAttributes()).isEqualTo(expected.getAttributes());
+      assertThat(actual.getEvents()).isEqualTo(expected.getEvents());
+      assertThat(actual.getLinks()).isEqualTo(expected.getLinks());
+    }
+    tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  private static String repeat(char c, int count) {
+    char[] chars = new char[count];
+    Arrays.fill(chars, c);
+    return new String(chars);
+  }
+
+  @Test
+  void coalesceSpansByTrace() throws InterruptedException {
+    RecordingSpanExporter recordingSpanExporter = new RecordingSpanExporter();
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.exporterBuilder(recordingSpanExporter)
+            .setTraceCoalescing(16, 100, TimeUnit.MILLISECONDS)
+            .build();
+    SdkTracerProvider tracerProvider =
+        SdkTracerProvider.builder().addSpanProcessor(disruptorSpanProcessor).build();
+    Tracer tracer = tracerProvider.get("test");
+    // Interleave the children of several traces, ending each root after its children.
+    List<Span> roots = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      roots.add(tracer.spanBuilder("root").startSpan());
+    }
+    for (int i = 0; i < 3; i++) {
+      for (Span root : roots) {
+        tracer.spanBuilder("child").setParent(Context.root().with(root)).startSpan().end();
+      }
+    }
+    for (Span root : roots) {
+      root.end();
+    }
+    // The root of this trace never ends, so its child is only released by the timeout.
+    Span orphanParent = tracer.spanBuilder("orphanParent").startSpan();
+    Span orphan =
+        tracer.spanBuilder("orphan").setParent(Context.root().with(orphanParent)).startSpan();
+    orphan.end();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (recordingSpanExporter.counterOnExport.get() < 17 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(recordingSpanExporter.counterOnExport.get()).isEqualTo(17);
+    // The spans of each trace are exported together, in a single call.
+    for (Span root : roots) {
+      String traceId = root.getSpanContext().getTraceId();
+      assertThat(recordingSpanExporter.batches)
+          .filteredOn(batch -> batch.stream().anyMatch(span -> span.getTraceId().equals(traceId)))
+          .singleElement()
+          .satisfies(
+              batch ->
+                  assertThat(batch)
+                      .filteredOn(span -> span.getTraceId().equals(traceId))
+                      .hasSize(4));
+    }
+    tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void fanOutDoesNotWaitForSlowSpanProcessor() throws InterruptedException {
+    CountDownLatch releaseConsumer = new CountDownLatch(1);
+    IncrementSpanProcessor slowSpanProcessor =
+        new IncrementSpanProcessor(NOT_REQUIRED, REQUIRED) {
+          @Override
+          public void onEnd(ReadableSpan span) {
+            try {
+              releaseConsumer.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            super.onEnd(span);
+          }
+        };
+    CountDownLatch fastEnded = new CountDownLatch(10);
+    IncrementSpanProcessor fastSpanProcessor =
+        new IncrementSpanProcessor(REQUIRED, REQUIRED) {
+          @Override
+          public void onEnd(ReadableSpan span) {
+            super.onEnd(span);
+            fastEnded.countDown();
+          }
+        };
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(slowSpanProcessor)
+            .addSpanProcessor(fastSpanProcessor)
+            .setBufferSize(16)
+            .build();
+    assertThat(disruptorSpanProcessor.isStartRequired()).isTrue();
+    assertThat(disruptorSpanProcessor.isEndRequired()).isTrue();
+    for (int i = 0; i < 10; i++) {
+      disruptorSpanProcessor.onStart(Context.root(), readWriteSpan);
+      disruptorSpanProcessor.onEnd(readableSpan);
+    }
+    assertThat(fastEnded.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(fastSpanProcessor.getCounterOnStart()).isEqualTo(10);
+    assertThat(slowSpanProcessor.getCounterOnStart()).isEqualTo(0);
+    assertThat(slowSpanProcessor.getCounterOnEnd()).isEqualTo(0);
+    CompletableResultCode flushResult = disruptorSpanProcessor.forceFlush();
+    assertThat(flushResult.isDone()).isFalse();
+    releaseConsumer.countDown();
+    flushResult.join(10, TimeUnit.SECONDS);
+    assertThat(flushResult.isSuccess()).isTrue();
+    assertThat(slowSpanProcessor.getCounterOnEnd()).isEqualTo(10);
+    assertThat(slowSpanProcessor.getCounterOnForceFlush()).isEqualTo(1);
+    assertThat(fastSpanProcessor.getCounterOnForceFlush()).isEqualTo(1);
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+    assertThat(slowSpanProcessor.getCounterOnShutdown()).isEqualTo(1);
+    assertThat(fastSpanProcessor.getCounterOnShutdown()).isEqualTo(1);
+  }
+
+  @Test
+  void stagesProcessEventsInOrder() {
+    final int tenK = 10000;
+    IncrementSpanProcessor firstStage = new IncrementSpanProcessor(NOT_REQUIRED, REQUIRED);
+    AtomicInteger outOfOrderEvents = new AtomicInteger(0);
+    IncrementSpanProcessor secondStage =
+        new IncrementSpanProcessor(NOT_REQUIRED, REQUIRED) {
+          @Override
+          public void onEnd(ReadableSpan span) {
+            super.onEnd(span);
+            if (firstStage.getCounterOnEnd() < getCounterOnEnd()) {
+              outOfOrderEvents.incrementAndGet();
+            }
+          }
+        };
+    IncrementSpanProcessor parallelSecondStage = new IncrementSpanProcessor(NOT_REQUIRED, REQUIRED);
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(firstStage)
+            .addStage(secondStage, parallelSecondStage)
+            .build();
+    for (int i = 1; i <= tenK; i++) {
+      disruptorSpanProcessor.onEnd(readableSpan);
+    }
+    disruptorSpanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(firstStage.getCounterOnEnd()).isEqualTo(tenK);
+    assertThat(secondStage.getCounterOnEnd()).isEqualTo(tenK);
+    assertThat(parallelSecondStage.getCounterOnEnd()).isEqualTo(tenK);
+    assertThat(outOfOrderEvents.get()).isEqualTo(0);
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+    assertThat(firstStage.getCounterOnShutdown()).isEqualTo(1);
+    assertThat(secondStage.getCounterOnShutdown()).isEqualTo(1);
+    assertThat(parallelSecondStage.getCounterOnShutdown()).isEqualTo(1);
+  }
+
+  @Test
+  void forceFlushDoesNotWaitForFullRingBuffer() throws InterruptedException {
+    CountDownLatch consumerBlocked = new CountDownLatch(1);
+    CountDownLatch releaseConsumer = new CountDownLatch(1);
+    IncrementSpanProcessor blockingSpanProcessor =
+        new IncrementSpanProcessor(NOT_REQUIRED, REQUIRED) {
+          @Override
+          public void onEnd(ReadableSpan span) {
+            consumerBlocked.countDown();
+            try {
+              releaseConsumer.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            super.onEnd(span);
+          }
+        };
+    SdkMeterProvider meterProvider = SdkMeterProvider.builder().build();
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(blockingSpanProcessor)
+            .setBlocking(false)
+            .setBufferSize(4)
+            .setControlTimeout(100, TimeUnit.MILLISECONDS)
+            .setMeterProvider(meterProvider)
+            .build();
+    disruptorSpanProcessor.onEnd(readableSpan);
+    assertThat(consumerBlocked.await(10, TimeUnit.SECONDS)).isTrue();
+    for (int i = 0; i < 4; i++) {
+      disruptorSpanProcessor.onEnd(readableSpan);
+    }
+    // The consumer is stuck, so the flush fails once the control timeout elapses.
+    CompletableResultCode timedOutFlush = disruptorSpanProcessor.forceFlush();
+    timedOutFlush.join(10, TimeUnit.SECONDS);
+    assertThat(timedOutFlush.isDone()).isTrue();
+    assertThat(timedOutFlush.isSuccess()).isFalse();
+    // The flush is not published on the full ring buffer, so only one span event was dropped.
+    assertThat(longValue(meterProvider, "disruptor.span_processor.dropped_events")).isEqualTo(1);
+    CompletableResultCode flush = disruptorSpanProcessor.forceFlush();
+    releaseConsumer.countDown();
+    flush.join(10, TimeUnit.SECONDS);
+    assertThat(flush.isSuccess()).isTrue();
+    assertThat(blockingSpanProcessor.getCounterOnEnd()).isEqualTo(4);
+    assertThat(blockingSpanProcessor.getCounterOnForceFlush()).isEqualTo(2);
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void customThreadFactory() {
+    AtomicInteger createdThreads = new AtomicInteger(0);
+    IncrementSpanProcessor incrementSpanProcessor = new IncrementSpanProcessor(REQUIRED, REQUIRED);
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(incrementSpanProcessor)
+            .setThreadFactory(
+                runnable -> {
+                  createdThreads.incrementAndGet();
+                  Thread thread = new Thread(runnable, "custom-worker");
+                  thread.setDaemon(true);
+                  return thread;
+                })
+            .build();
+    disruptorSpanProcessor.onStart(Context.root(), readWriteSpan);
+    disruptorSpanProcessor.onEnd(readableSpan);
+    disruptorSpanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(createdThreads.get()).isEqualTo(1);
+    assertThat(incrementSpanProcessor.getCounterOnStart()).isEqualTo(1);
+    assertThat(incrementSpanProcessor.getCounterOnEnd()).isEqualTo(1);
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void cpuAffinityPinsWorker() {
+    TestAffinity.pinnedCpus.clear();
+    TestAffinity.pinnedThreads.clear();
+    IncrementSpanProcessor incrementSpanProcessor = new IncrementSpanProcessor(REQUIRED, REQUIRED);
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(incrementSpanProcessor)
+            .setThreadFactory(
+                DisruptorThreadFactories.cpuAffinity("0,2-3", TestAffinity.class.getName()))
+            .build();
+    disruptorSpanProcessor.onEnd(readableSpan);
+    disruptorSpanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(incrementSpanProcessor.getCounterOnEnd()).isEqualTo(1);
+    BitSet expected = new BitSet();
+    expected.set(0);
+    expected.set(2, 4);
+    assertThat(TestAffinity.pinnedCpus).containsExactly(expected);
+    assertThat(TestAffinity.pinnedThreads.get(0).getName())
+        .startsWith(DisruptorThreadFactories.WORKER_THREAD_NAME);
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void cpuAffinityRequiresAffinityLibrary() {
+    assertThatThrownBy(() -> DisruptorThreadFactories.cpuAffinity("0", "com.example.NoAffinity"))
+        .isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  void cpuAffinityRejectsInvalidCpuList() {
+    for (String cpuList : Arrays.asList("", "a", "1,", "3-1", "-1", "0,,1")) {
+      assertThatThrownBy(
+              () -> DisruptorThreadFactories.cpuAffinity(cpuList, TestAffinity.class.getName()))
+          .as(cpuList)
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  // Stands in for net.openhft.affinity.Affinity.
+  public static final class TestAffinity {
+    static final List<BitSet> pinnedCpus = Collections.synchronizedList(new ArrayList<>());
+    static final List<Thread> pinnedThreads = Collections.synchronizedList(new ArrayList<>());
+
+    public static void setAffinity(BitSet cpus) {
+      pinnedCpus.add(cpus);
+      pinnedThreads.add(Thread.currentThread());
+    }
+
+    private TestAffinity() {}
+  }
+
+  @Test
+  void virtualThreadsRequireParkingWaitStrategy() {
+    // Stands in for virtualThreads(), which needs Java 21.
+    ThreadFactory threadFactory =
+        new DisruptorThreadFactories.VirtualThreadFactory(
+            new DaemonThreadFactory(DisruptorThreadFactories.WORKER_THREAD_NAME));
+    for (WaitStrategy waitStrategy :
+        Arrays.asList(
+            new BusySpinWaitStrategy(),
+            new YieldingWaitStrategy(),
+            PhasedBackoffWaitStrategy.withSleep(1, 1, TimeUnit.MILLISECONDS))) {
+      assertThatThrownBy(
+              () ->
+                  DisruptorSpanProcessor.builder(new IncrementSpanProcessor(REQUIRED, REQUIRED))
+                      .setThreadFactory(threadFactory)
+                      .setWaitingStrategy(waitStrategy)
+                      .build())
+          .as(waitStrategy.getClass().getSimpleName())
+          .isInstanceOf(IllegalStateException.class);
+    }
+    for (WaitStrategy waitStrategy :
+        Arrays.asList(new BlockingWaitStrategy(), new AdaptiveWaitStrategy())) {
+      DisruptorSpanProcessor disruptorSpanProcessor =
+          DisruptorSpanProcessor.builder(new IncrementSpanProcessor(REQUIRED, REQUIRED))
+              .setThreadFactory(threadFactory)
+              .setWaitingStrategy(waitStrategy)
+              .build();
+      disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  void virtualThreadWorker() {
+    ThreadFactory threadFactory;
+    try {
+      threadFactory = DisruptorThreadFactories.virtualThreads();
+    } catch (UnsupportedOperationException e) {
+      assumeTrue(false, "Virtual threads are not supported");
+      return;
+    }
+    IncrementSpanProcessor incrementSpanProcessor = new IncrementSpanProcessor(REQUIRED, REQUIRED);
+    DisruptorSpanProcessor disruptorSpanProcessor =
+        DisruptorSpanProcessor.builder(incrementSpanProcessor)
+            .setThreadFactory(threadFactory)
+            .build();
+    disruptorSpanProcessor.onEnd(readableSpan);
+    disruptorSpanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+    assertThat(incrementSpanProcessor.getCounterOnEnd()).isEqualTo(1);
+    disruptorSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
 }
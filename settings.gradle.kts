@@ -4,6 +4,7 @@ pluginManagement {
         id("com.github.johnrengelman.shadow") version "7.0.0"
         id("org.unbroken-dome.test-sets") version "4.0.0"
         id("io.github.gradle-nexus.publish-plugin") version "1.1.0"
+        id("me.champeau.jmh") version "0.6.6"
         id("nebula.release") version "16.0.0"
     }
 }